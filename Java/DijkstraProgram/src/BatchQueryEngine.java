@@ -0,0 +1,272 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.io.*;
+
+/**
+ * BatchQueryEngine Class
+ *
+ * Answers a file of shortest path queries against one loaded Graph, spreading the queries over
+ * a fixed pool of worker threads.  The graph is read once and shared (searches never modify it),
+ * while every worker keeps its own ShortestPathSearch, so distances, heaps and generation stamps
+ * are never shared between threads.  Because a ShortestPathSearch resets itself in O(1) between
+ * searches, a worker pays only for the part of the graph each query actually explores.
+ *
+ * Query File Format:
+ *      Any number of lines, each with two space separated integers u and v, 1 <= u, v <= N.
+ *      Each line asks for the shortest distance from vertex u to vertex v.
+ *      With a snapping index (see setSnapIndex()), each line instead holds two points as six
+ *      numbers, x1 y1 z1 x2 y2 z2, and asks for the shortest distance from the vertex nearest the
+ *      first point to the vertex nearest the second.
+ * Output Format:
+ *      One line per query, in the same order as the query file, with the distance printed the
+ *      same way as the single query program, or "unreachable" if there is no path (see
+ *      ShortestPathSearch.formatDistance()).
+ *
+ * Queries are read and answered in blocks of BLOCK_SIZE, so the query file is streamed rather
+ * than held in memory.  Inside a block, workers claim queries one at a time from a shared counter,
+ * which keeps all workers busy even when some queries explore far more of the graph than others.
+ *
+ * Paths:
+ *      If a path file is given, every query's shortest path is also written to it, in query order,
+ *      in the format of ShortestPathSearch.writePath().  After each query a worker copies the path's
+ *      vertexes onto the end of its own int buffer, and the paths are written from those buffers
+ *      once the block is done, so recording a path costs O(path length) and allocates nothing once
+ *      the buffers have grown to fit a block.
+ *
+ * Fields:
+ *      graph : the shared graph
+ *      searchMode : which ShortestPathSearch mode answers each query (ShortestPathSearch constants)
+ *      workers : one ShortestPathSearch per thread
+ *      threadPool : the worker threads
+ *      expandedCount : total vertexes expanded over all queries answered so far
+ *      workerPaths, workerPathSize : each worker's buffer of path vertexes for the current block
+ *      snapIndex : spatial index that turns query points into vertexes, null if queries name vertexes
+ *      snapQuery : the query reused for every point snapped, as queries are read on one thread
+ */
+public class BatchQueryEngine {
+    // Number of queries read and answered at a time
+    public static final int BLOCK_SIZE = 4096;
+
+    // Fields
+    private final Graph graph;
+    private final int searchMode;
+    private final ShortestPathSearch[] workers;
+    private final ExecutorService threadPool;
+    private final AtomicLong expandedCount;
+    private final int[][] workerPaths;
+    private final int[] workerPathSize;
+    private KdTree snapIndex;
+    private final KdTree.NearestQuery snapQuery;
+
+
+    // Constructor Method
+    public BatchQueryEngine(Graph queryGraph, int mode, int numberOfThreads) {
+        this(queryGraph, null, null, mode, numberOfThreads);
+    }
+
+    // The hierarchy is needed for the CONTRACTION_HIERARCHY mode, the landmarks for the ALT mode,
+    // and both are shared by all workers
+    public BatchQueryEngine(Graph queryGraph, ContractionHierarchy hierarchy, Landmarks landmarks,
+                            int mode, int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1, was " + numberOfThreads);
+        }
+        graph = queryGraph;
+        searchMode = mode;
+        workers = new ShortestPathSearch[numberOfThreads];
+        for (int i = 0; i < numberOfThreads; i++) {
+            workers[i] = new ShortestPathSearch(graph, hierarchy, landmarks);
+        }
+        threadPool = Executors.newFixedThreadPool(numberOfThreads);
+        expandedCount = new AtomicLong();
+        workerPaths = new int[numberOfThreads][];
+        workerPathSize = new int[numberOfThreads];
+        snapQuery = new KdTree.NearestQuery();
+    }
+
+
+    /**
+     * setSnapIndex Method
+     * Makes the query file give points instead of vertex numbers, each snapped to its nearest
+     * vertex with the index (built over this engine's graph), or back to vertex numbers if null
+     */
+    public void setSnapIndex(KdTree index) {
+        snapIndex = index;
+    }
+
+
+    /**
+     * run Method
+     * Reads every query from queryFile, and prints one distance per query to output, in order.
+     * Shuts the worker threads down when done.
+     */
+    public void run(File queryFile, PrintStream output) throws IOException {
+        run(queryFile, output, null);
+    }
+
+    /**
+     * run Method
+     * Same as run(queryFile, output), also writing each query's path to pathFile, if it is not null
+     */
+    public void run(File queryFile, PrintStream output, File pathFile) throws IOException {
+        Scanner queryScanner = new Scanner(queryFile);
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output)));
+        PrintWriter pathWriter = (pathFile != null) ? new PrintWriter(new BufferedWriter(new FileWriter(pathFile))) : null;
+
+        int[] sources = new int[BLOCK_SIZE];
+        int[] targets = new int[BLOCK_SIZE];
+        double[] results = new double[BLOCK_SIZE];
+        int queriesRead = 0;
+
+        // Where each query's path was left: which worker's buffer, where in it, and its length
+        int[] pathWorker = null;
+        int[] pathStart = null;
+        int[] pathLength = null;
+        if (pathWriter != null) {
+            pathWorker = new int[BLOCK_SIZE];
+            pathStart = new int[BLOCK_SIZE];
+            pathLength = new int[BLOCK_SIZE];
+            for (int i = 0; i < workers.length; i++) {
+                workerPaths[i] = new int[1024];
+            }
+        }
+
+        try {
+            while (hasNextQuery(queryScanner)) {
+                // Reads the next block of queries, converting vertex numbers (or points) to indexes
+                int blockSize = 0;
+                while (blockSize < BLOCK_SIZE && hasNextQuery(queryScanner)) {
+                    sources[blockSize] = readVertex(queryScanner, queriesRead + 1);
+                    targets[blockSize] = readVertex(queryScanner, queriesRead + 1);
+                    blockSize++;
+                    queriesRead++;
+                }
+
+                // Answers the block in parallel, then writes the results in query order
+                answerBlock(sources, targets, results, blockSize, pathWorker, pathStart, pathLength);
+                for (int i = 0; i < blockSize; i++) {
+                    writer.println(ShortestPathSearch.formatDistance(results[i]));
+                }
+                if (pathWriter != null) {
+                    for (int i = 0; i < blockSize; i++) {
+                        ShortestPathSearch.writePath(graph, sources[i], targets[i], workerPaths[pathWorker[i]],
+                                pathStart[i], pathLength[i], pathWriter);
+                    }
+                }
+            }
+        }
+        finally {
+            writer.flush();
+            if (pathWriter != null) {
+                pathWriter.close();
+            }
+            queryScanner.close();
+            threadPool.shutdown();
+        }
+    }
+
+    // Total vertexes expanded over all queries answered so far
+    public long getExpandedCount() {
+        return expandedCount.get();
+    }
+
+
+    // Helper Methods
+
+    /**
+     * answerBlock Method
+     * Starts one task per worker.  Each task repeatedly claims the next unanswered query of the
+     * block and answers it with its own ShortestPathSearch, until the block is used up.
+     * If pathWorker is not null, each task also copies every query's path into its path buffer,
+     * noting where it put it.  Waits for every task to finish before returning.
+     */
+    private void answerBlock(final int[] sources, final int[] targets, final double[] results, final int blockSize,
+                             final int[] pathWorker, final int[] pathStart, final int[] pathLength) {
+        final AtomicInteger nextQuery = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<Future<?>>(workers.length);
+        Arrays.fill(workerPathSize, 0);
+
+        for (int i = 0; i < workers.length; i++) {
+            final int worker = i;
+            final ShortestPathSearch search = workers[i];
+            tasks.add(threadPool.submit(new Runnable() {
+                public void run() {
+                    long expanded = 0;
+                    int query = nextQuery.getAndIncrement();
+                    while (query < blockSize) {
+                        results[query] = search.query(searchMode, sources[query], targets[query]);
+                        expanded += search.getExpandedCount();
+                        if (pathWorker != null) {
+                            savePath(worker, search, query, pathWorker, pathStart, pathLength);
+                        }
+                        query = nextQuery.getAndIncrement();
+                    }
+                    expandedCount.addAndGet(expanded);
+                }
+            }));
+        }
+
+        // Waits for the block to finish, passing on any failure from a worker
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while answering queries", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Query worker failed", e.getCause());
+            }
+        }
+    }
+
+    // Copies the path of the worker's last query onto the end of its path buffer
+    private void savePath(int worker, ShortestPathSearch search, int query,
+                          int[] pathWorker, int[] pathStart, int[] pathLength) {
+        int length = search.buildPath();
+        int start = workerPathSize[worker];
+        if (start + length > workerPaths[worker].length) {
+            workerPaths[worker] = Arrays.copyOf(workerPaths[worker], Math.max(start + length, 2 * workerPaths[worker].length));
+        }
+        System.arraycopy(search.getPathVertexes(), 0, workerPaths[worker], start, length);
+        workerPathSize[worker] = start + length;
+        pathWorker[query] = worker;
+        pathStart[query] = start;
+        pathLength[query] = length;
+    }
+
+    // Whether the query file has another query, starting with a vertex number or a coordinate
+    private boolean hasNextQuery(Scanner queryScanner) {
+        return (snapIndex != null) ? queryScanner.hasNextDouble() : queryScanner.hasNextInt();
+    }
+
+    // Reads one vertex number from the query file and returns its index, or with a snapping
+    // index, reads one point and returns the index of its nearest vertex
+    private int readVertex(Scanner queryScanner, int queryNumber) {
+        if (snapIndex != null) {
+            double x = readCoordinate(queryScanner, queryNumber);
+            double y = readCoordinate(queryScanner, queryNumber);
+            double z = readCoordinate(queryScanner, queryNumber);
+            return snapIndex.nearest(x, y, z, snapQuery);
+        }
+        if (!queryScanner.hasNextInt()) {
+            throw new IllegalArgumentException("Query " + queryNumber + " is missing its target vertex");
+        }
+        int vertexNumber = queryScanner.nextInt();
+        if (vertexNumber < 1 || vertexNumber > graph.getNumberOfVertexes()) {
+            throw new IllegalArgumentException("Query " + queryNumber + " names vertex " + vertexNumber
+                    + ", expected 1 to " + graph.getNumberOfVertexes());
+        }
+        return graph.getIndex(vertexNumber - 1);
+    }
+
+    // Reads one coordinate of a query point from the query file
+    private static double readCoordinate(Scanner queryScanner, int queryNumber) {
+        if (!queryScanner.hasNextDouble()) {
+            throw new IllegalArgumentException("Query " + queryNumber + " is missing a coordinate");
+        }
+        return queryScanner.nextDouble();
+    }
+}
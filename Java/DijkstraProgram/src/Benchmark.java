@@ -0,0 +1,161 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Benchmark Class
+ *
+ * Times the point-to-point search on one graph and one query file (same formats as Dijkstra and
+ * BatchQueryEngine), in the vertex order of the input and again after renumbering the graph
+ * along a Hilbert curve (see HilbertCurve), so the effect of memory layout can be measured on
+ * real inputs.  In Hilbert order, the default 4-ary heap is then compared with a binary heap and
+ * with the radix heap of QuantizedSearch.  Queries are answered one after another on a single
+ * thread, so the times compare the work of one search, not the thread pool.
+ *
+ * Usage:
+ *      java Benchmark <graph file> <query file> [rounds] [resolution]
+ * Each variant is timed over the whole query file rounds times (default 3), after one untimed
+ * round that lets the JIT compile the search.  The fastest round is reported, along with the
+ * total distance over the queries whose target can be reached, which must match between the
+ * exact variants.  The radix heap rounds distances to the resolution (default 0.001), so its
+ * total may be slightly longer; the largest error seen over the queries is printed next to the
+ * largest error bound QuantizedSearch reported.
+ */
+public class Benchmark {
+    // Timed rounds, when not given on the command line
+    public static final int DEFAULT_ROUNDS = 3;
+
+    // Unit of the radix heap's fixed-point distances, when not given on the command line
+    public static final double DEFAULT_RESOLUTION = 0.001;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java Benchmark <graph file> <query file> [rounds] [resolution]");
+            return;
+        }
+        int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+        double resolution = (args.length > 3) ? Double.parseDouble(args[3]) : DEFAULT_RESOLUTION;
+
+        Graph graph = Graph.read(new File(args[0]));
+        int[][] queries = readQueries(new File(args[1]), graph.getNumberOfVertexes());
+        System.out.println(graph.getNumberOfVertexes() + " vertexes, " + graph.getNumberOfEdges() + " edges, "
+                + queries[0].length + " queries");
+
+        long startTime = System.nanoTime();
+        Graph hilbertGraph = graph.renumbered(HilbertCurve.order(graph));
+        long renumberTime = System.nanoTime() - startTime;
+
+        time("input order", graph, queries, rounds, dijkstraRunner(graph, Dijkstra.HEAP_ARITY));
+        time("hilbert order", hilbertGraph, queries, rounds, dijkstraRunner(hilbertGraph, Dijkstra.HEAP_ARITY));
+        System.out.println("Renumbering took " + renumberTime / 1000000 + " ms");
+
+        time("hilbert order, binary heap", hilbertGraph, queries, rounds, dijkstraRunner(hilbertGraph, 2));
+        final QuantizedSearch quantized = new QuantizedSearch(hilbertGraph, resolution);
+        time("hilbert order, radix heap", hilbertGraph, queries, rounds, new QueryRunner() {
+            double answer(int source, int target) {
+                return quantized.dijkstra(source, target);
+            }
+        });
+        compareQuantized(hilbertGraph, queries, quantized);
+    }
+
+
+    // Helper Methods
+
+    /**
+     * time Method
+     * Answers every query with the runner, once untimed and then rounds times, and prints the
+     * fastest round
+     */
+    private static void time(String variant, Graph graph, int[][] queries, int rounds, QueryRunner runner) {
+        double totalDistance = answerAll(runner, graph, queries);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long startTime = System.nanoTime();
+            answerAll(runner, graph, queries);
+            best = Math.min(best, System.nanoTime() - startTime);
+        }
+        System.out.println(variant + ": " + best / 1000000 + " ms for all queries, "
+                + best / 1000 / queries[0].length + " us per query, total distance " + totalDistance);
+    }
+
+    // Plain Dijkstra with a heap of the given arity
+    private static QueryRunner dijkstraRunner(Graph graph, int heapArity) {
+        final ShortestPathSearch search = new ShortestPathSearch(graph, null, null, heapArity);
+        return new QueryRunner() {
+            double answer(int source, int target) {
+                return search.dijkstra(source, target);
+            }
+        };
+    }
+
+    /**
+     * compareQuantized Method
+     * Answers every query exactly and with the radix heap, and prints how many answers differ,
+     * the largest difference, and the largest error bound the radix search reported
+     */
+    private static void compareQuantized(Graph graph, int[][] queries, QuantizedSearch quantized) {
+        ShortestPathSearch search = new ShortestPathSearch(graph);
+        int differing = 0;
+        double largestError = 0;
+        double largestBound = 0;
+        for (int i = 0; i < queries[0].length; i++) {
+            int source = graph.getIndex(queries[0][i]);
+            int target = graph.getIndex(queries[1][i]);
+            double exact = search.dijkstra(source, target);
+            double rounded = quantized.dijkstra(source, target);
+            if (rounded != exact) {
+                differing++;
+                largestError = Math.max(largestError, rounded - exact);
+            }
+            largestBound = Math.max(largestBound, quantized.getErrorBound());
+        }
+        System.out.println("Radix heap at resolution " + quantized.getResolution() + ": " + differing + " of "
+                + queries[0].length + " distances differ, by at most " + largestError + " (largest bound "
+                + largestBound + ")");
+    }
+
+    // Answers every query, translating the input vertex numbers into the graph's numbering, and
+    // returns the total distance of the queries with a reachable target
+    private static double answerAll(QueryRunner runner, Graph graph, int[][] queries) {
+        double totalDistance = 0;
+        for (int i = 0; i < queries[0].length; i++) {
+            double distance = runner.answer(graph.getIndex(queries[0][i]), graph.getIndex(queries[1][i]));
+            if (distance != Double.MAX_VALUE) {
+                totalDistance += distance;
+            }
+        }
+        return totalDistance;
+    }
+
+    // Reads "u v" query lines as input vertex indexes, sources in row 0 and targets in row 1
+    private static int[][] readQueries(File queryFile, int numberOfVertexes) throws FileNotFoundException {
+        Scanner queryScanner = new Scanner(queryFile);
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        int count = 0;
+        while (queryScanner.hasNextInt()) {
+            if (count == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * count);
+                targets = Arrays.copyOf(targets, 2 * count);
+            }
+            sources[count] = queryScanner.nextInt() - 1;
+            targets[count] = queryScanner.nextInt() - 1;
+            if (sources[count] < 0 || sources[count] >= numberOfVertexes
+                    || targets[count] < 0 || targets[count] >= numberOfVertexes) {
+                throw new IllegalArgumentException("Query " + (count + 1) + " names a vertex outside 1 to "
+                        + numberOfVertexes);
+            }
+            count++;
+        }
+        queryScanner.close();
+        return new int[][] { Arrays.copyOf(sources, count), Arrays.copyOf(targets, count) };
+    }
+
+
+    // Additional Classes
+
+    // One way of answering a query, between two vertex indexes of the graph being timed
+    private abstract static class QueryRunner {
+        abstract double answer(int source, int target);
+    }
+}
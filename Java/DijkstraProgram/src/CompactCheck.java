@@ -0,0 +1,92 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * CompactCheck Class
+ *
+ * Checks the single-precision pipeline (CompactGraph, CompactSearch) against the expected outputs
+ * of the test files, within the error bound CompactSearch documents.  Every test input is solved
+ * for vertex 1 to vertex N twice, by the double pipeline (Graph, ShortestPathSearch) and by the
+ * compact one, and the compact distance must be within B(k, L) of the expected output, with k the
+ * larger edge count of the two paths found and L the larger of the two distances.  Both must also
+ * agree on whether vertex N can be reached at all, and the double distance must match the
+ * expected output up to the digits it was printed with.
+ *
+ * Usage:
+ *      java CompactCheck <tests directory>
+ * The directory holds DijkstraTest1in.txt, DijkstraTest1out.txt, DijkstraTest2in.txt, ... (as
+ * Resources_Dijkstra/tests_Dijkstra), and the tests are run in order until a number is missing.
+ * One line is printed per test, then a summary.  If any test fails, an IllegalStateException is
+ * thrown after the summary, so the exit status of the run tells whether the check passed.
+ */
+public class CompactCheck {
+    // Relative difference allowed between the double pipeline and the expected output, which
+    // may have been printed with a digit or two fewer
+    public static final double PRINTED_TOLERANCE = 1e-12;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java CompactCheck <tests directory>");
+            return;
+        }
+        File directory = new File(args[0]);
+        int tests = 0;
+        int failed = 0;
+        for (int i = 1; new File(directory, "DijkstraTest" + i + "in.txt").exists(); i++) {
+            tests++;
+            if (!check(new File(directory, "DijkstraTest" + i + "in.txt"), new File(directory, "DijkstraTest" + i + "out.txt"))) {
+                failed++;
+            }
+        }
+        if (tests == 0) {
+            throw new IllegalArgumentException(directory + " holds no DijkstraTest1in.txt");
+        }
+        System.out.println((tests - failed) + " of " + tests + " tests passed");
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + tests + " tests are outside the compact error bound");
+        }
+    }
+
+
+    // Helper Methods
+
+    /**
+     * check Method
+     * Runs both pipelines on one test input, prints how they compare with the expected output,
+     * and returns whether the test passed
+     */
+    private static boolean check(File inputFile, File outputFile) throws IOException {
+        Scanner outputScanner = new Scanner(outputFile);
+        double expected;
+        try {
+            expected = outputScanner.nextDouble();
+        }
+        finally {
+            outputScanner.close();
+        }
+
+        Graph graph = Graph.read(inputFile);
+        ShortestPathSearch search = new ShortestPathSearch(graph);
+        double exact = search.dijkstra(graph.getIndex(0), graph.getIndex(graph.getNumberOfVertexes() - 1));
+        int exactHops = Math.max(search.buildPath() - 1, 0);
+
+        CompactGraph compactGraph = CompactGraph.read(inputFile);
+        CompactSearch compactSearch = new CompactSearch(compactGraph);
+        double compact = compactSearch.dijkstra(0, compactGraph.getNumberOfVertexes() - 1);
+        int compactHops = compactSearch.getHops();
+
+        boolean passed;
+        double bound = 0;
+        if (expected == Double.MAX_VALUE || exact == Double.MAX_VALUE || compact == Double.MAX_VALUE) {
+            passed = expected == exact && exact == compact;
+        }
+        else {
+            bound = CompactSearch.errorBound(Math.max(exactHops, compactHops), Math.max(expected, compact),
+                    compactGraph.getMaxCoordinate());
+            passed = Math.abs(exact - expected) <= PRINTED_TOLERANCE * expected && Math.abs(compact - expected) <= bound;
+        }
+        System.out.println(inputFile.getName() + ": expected " + expected + ", double " + exact + ", compact " + compact
+                + ", error " + Math.abs(compact - expected) + " (bound " + bound + "), " + (passed ? "passed" : "FAILED"));
+        return passed;
+    }
+}
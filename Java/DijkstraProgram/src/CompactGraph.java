@@ -0,0 +1,175 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * CompactGraph Class
+ *
+ * A smaller version of Graph for inputs too large to load in double precision.  The vertex
+ * coordinates are packed into a float array instead of a double array, and only the forward
+ * edges are kept, as the same CSR arrays (offsets, targets) as Graph: no reverse index and no
+ * weight tables, each edge weight is computed from the coordinates when the edge is relaxed.
+ * That is 12 bytes per vertex for coordinates and 4 per vertex and per edge for the CSR, against
+ * Graph's 24 bytes per vertex for coordinates and 24 per edge for both indexes and their weights.
+ *
+ * Graph.read() first collects the edges in two flat arrays and then sorts them into place, which
+ * for a moment takes another 8 bytes per edge.  Here the file is read twice instead: the first
+ * pass reads the coordinates and counts each vertex's out-degree, the second places every edge
+ * straight into its slot of targets.  Loading never needs more memory than the graph itself.
+ * Edges of a vertex keep the order they were listed in the input, as in Graph, and vertexes are
+ * never renumbered, so a vertex's index is its number - 1.
+ *
+ * Precision:
+ *      Each coordinate is rounded to the nearest float, moving it by at most u|c|, u = 2^-24 (unit
+ *      roundoff of float), so each vertex moves by at most sqrt(3)uC, C = largest |coordinate|.
+ *      An edge weight is computed in double from the float coordinates and rounded to a float once.
+ *      See CompactSearch for what this does to a shortest distance.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ * Reading the input takes O(n + m) time and the graph takes 16n + 4m bytes.
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      numberOfEdges : m
+ *      coordinates : packed xyz triples as floats, length 3n
+ *      offsets : start of each vertex's edges in targets, length n+1
+ *      targets : destination index of each edge, grouped by source, length m
+ *      maxCoordinate : largest absolute value of any coordinate as read, before rounding (C)
+ */
+public class CompactGraph {
+    // Fields
+    private final int numberOfVertexes;
+    private final int numberOfEdges;
+    private final float[] coordinates;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double maxCoordinate;
+
+
+    // Constructor Method, see read()
+    private CompactGraph(float[] packedCoordinates, int[] edgeOffsets, int[] edgeTargets, double largestCoordinate) {
+        numberOfVertexes = edgeOffsets.length - 1;
+        numberOfEdges = edgeTargets.length;
+        coordinates = packedCoordinates;
+        offsets = edgeOffsets;
+        targets = edgeTargets;
+        maxCoordinate = largestCoordinate;
+    }
+
+
+    /**
+     * read Method
+     * Reads a graph in the input format described in the README in two passes over the file:
+     *      1) read the coordinates into floats, and count the out-degree of each edge's source
+     *      2) prefix sum the degrees into offsets, then read the edges again, placing each one in
+     *         the next free slot of its source's range
+     * Efficiency of O(n + m)
+     */
+    public static CompactGraph read(File inputFile) throws FileNotFoundException {
+        // First pass: coordinates and out-degrees.  The degree of vertex v is counted at
+        // offsets[v + 1] so the prefix sum below lines up
+        Scanner inputScanner = new Scanner(inputFile);
+        int numberOfVertexes;
+        int numberOfEdges;
+        float[] coordinates;
+        int[] offsets;
+        double maxCoordinate = 0;
+        try {
+            numberOfVertexes = inputScanner.nextInt();
+            numberOfEdges = inputScanner.nextInt();
+            coordinates = new float[3 * numberOfVertexes];
+            for (int i = 0; i < 3 * numberOfVertexes; i++) {
+                double coordinate = inputScanner.nextDouble();
+                maxCoordinate = Math.max(maxCoordinate, Math.abs(coordinate));
+                coordinates[i] = (float) coordinate;
+            }
+            offsets = new int[numberOfVertexes + 1];
+            for (int i = 0; i < numberOfEdges; i++) {
+                int source = readVertex(inputScanner, numberOfVertexes, i);
+                readVertex(inputScanner, numberOfVertexes, i);
+                offsets[source + 1]++;
+            }
+        }
+        finally {
+            inputScanner.close();
+        }
+        for (int v = 0; v < numberOfVertexes; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Second pass: skips the header and coordinates, then drops each edge into place.  The
+        // next free slot of each vertex is kept in offsets[v] itself, which then ends up at the
+        // start of vertex v + 1, so the offsets are shifted back by one afterwards
+        int[] targets = new int[numberOfEdges];
+        inputScanner = new Scanner(inputFile);
+        try {
+            for (int i = 0; i < 2 + 3 * numberOfVertexes; i++) {
+                inputScanner.next();
+            }
+            for (int i = 0; i < numberOfEdges; i++) {
+                int source = readVertex(inputScanner, numberOfVertexes, i);
+                targets[offsets[source]++] = readVertex(inputScanner, numberOfVertexes, i);
+            }
+        }
+        finally {
+            inputScanner.close();
+        }
+        for (int v = numberOfVertexes; v > 0; v--) {
+            offsets[v] = offsets[v - 1];
+        }
+        offsets[0] = 0;
+
+        return new CompactGraph(coordinates, offsets, targets, maxCoordinate);
+    }
+
+
+    /**
+     * getEdgeWeight Method
+     * Length of the edge in slot edge of targets, whose source is vertex source, computed in
+     * double from the float coordinates and rounded to a float
+     */
+    public float getEdgeWeight(int source, int edge) {
+        int destination = targets[edge];
+        double dx = (double) coordinates[3 * destination] - coordinates[3 * source];
+        double dy = (double) coordinates[3 * destination + 1] - coordinates[3 * source + 1];
+        double dz = (double) coordinates[3 * destination + 2] - coordinates[3 * source + 2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfVertexes() {
+        return numberOfVertexes;
+    }
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+    public float[] getCoordinates() {
+        return coordinates;
+    }
+    public int[] getOffsets() {
+        return offsets;
+    }
+    public int[] getTargets() {
+        return targets;
+    }
+    public double getMaxCoordinate() {
+        return maxCoordinate;
+    }
+
+    // Bytes taken by the graph's arrays
+    public long getMemoryFootprint() {
+        return 4L * coordinates.length + 4L * offsets.length + 4L * targets.length;
+    }
+
+
+    // Helper Methods
+
+    // Reads one vertex number of edge i and returns its index
+    private static int readVertex(Scanner inputScanner, int numberOfVertexes, int i) {
+        int label = inputScanner.nextInt();
+        if (label < 1 || label > numberOfVertexes) {
+            throw new IllegalArgumentException("Edge " + (i + 1) + " has vertex " + label + ", expected 1 to "
+                    + numberOfVertexes);
+        }
+        return label - 1;
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.*;
+
+/**
+ * CompactSearch Class
+ *
+ * Dijkstra's algorithm over a CompactGraph in single precision: distances are kept in a float
+ * array and added up in float arithmetic, and the frontier is an indexed 4-ary heap (the same
+ * layout as IndexedHeap) ordered by that float array.  With the predecessor of each vertex, the
+ * search takes 16 bytes per vertex, against ShortestPathSearch's 32, and with the graph 32 bytes
+ * per vertex plus 4 per edge in all.
+ * Float addition never makes a sum smaller than either part, so a distance can only grow along a
+ * path, and the search finds the shortest path as measured in float arithmetic, exactly like the
+ * double search does in double arithmetic.  It is not thread safe, and does not keep generation
+ * stamps (that would be 4 more bytes per vertex), so each search clears the distances in O(n).
+ *
+ * Error Bound:
+ *      Let u = 2^-24 (unit roundoff of float), C = largest |coordinate| in the input, and for a
+ *      path of k edges and length L (exact arithmetic on the input coordinates) let
+ *              B(k, L) = g * (L + 2 sqrt(3) k C),  g = (k + 1)u / (1 - (k + 1)u)
+ *      Rounding the coordinates moves each edge weight by at most 2 sqrt(3) uC, rounding the
+ *      weight to a float by at most u times the weight, and the k - 1 float additions along the
+ *      path by at most (k - 1)u / (1 - (k - 1)u) times the sum, so the float length of the path
+ *      is within B(k, L) of L.  The distance this search prints is the float length of the path
+ *      it found, which is no longer than the float length of the true shortest path, so
+ *              |printed distance - shortest distance| <= B(k, L)
+ *      with k the larger of the two paths' edge counts and L the larger of the two distances (up
+ *      to terms of order u^2 L).  Roughly, each edge costs 6e-8 of the distance plus 2e-7 of the
+ *      largest coordinate.  The double pipeline's own error is about 2^-29 times smaller.
+ *      errorBound() computes B, and CompactCheck checks it against the test files.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ *
+ * Fields:
+ *      graph : the graph being searched
+ *      distance : shortest known distance from the source, MAX_VALUE if not reached yet
+ *      predecessor : vertex before each vertex on its best known path from the source, -1 for the
+ *                    source and for vertexes not reached
+ *      heap : the vertexes in the frontier, in heap order, only the first heapSize entries in use
+ *      position : slot of each vertex inside heap, -1 if it is not in the heap
+ *      heapSize : number of vertexes in the frontier
+ *      lastTarget : target of the last search, -1 before the first one
+ *      expandedCount : number of vertexes removed from the heap in the last search
+ */
+public class CompactSearch {
+    // Unit roundoff of float, the largest relative error of rounding a number to a float
+    public static final double UNIT_ROUNDOFF = Math.pow(2, -24);
+
+    // Number of children per heap node, as Dijkstra.HEAP_ARITY
+    private static final int ARITY = 4;
+
+    // Fields
+    private final CompactGraph graph;
+    private final float[] distance;
+    private final int[] predecessor;
+    private final int[] heap;
+    private final int[] position;
+    private int heapSize;
+    private int lastTarget;
+    private int expandedCount;
+
+
+    // Constructor Method
+    // Efficiency of O(n)
+    public CompactSearch(CompactGraph searchGraph) {
+        graph = searchGraph;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        distance = new float[numberOfVertexes];
+        predecessor = new int[numberOfVertexes];
+        heap = new int[numberOfVertexes];
+        position = new int[numberOfVertexes];
+        lastTarget = -1;
+    }
+
+
+    /**
+     * dijkstra Method
+     * Returns the shortest distance from source to target (vertex indexes) in float arithmetic,
+     * or Double.MAX_VALUE if the target cannot be reached, same as the double search
+     * Completed in O(m log(n)) time
+     */
+    public double dijkstra(int source, int target) {
+        Arrays.fill(distance, Float.MAX_VALUE);
+        Arrays.fill(predecessor, -1);
+        Arrays.fill(position, -1);
+        heapSize = 0;
+        expandedCount = 0;
+        lastTarget = target;
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        distance[source] = 0;
+        add(source);
+        while (heapSize > 0) {
+            int currentIndex = poll();
+            expandedCount++;
+            if (currentIndex == target) {
+                return distance[target];
+            }
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                float newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+                if (newDistance < distance[neighborIndex]) {
+                    distance[neighborIndex] = newDistance;
+                    predecessor[neighborIndex] = currentIndex;
+                    if (position[neighborIndex] < 0) {
+                        add(neighborIndex);
+                    }
+                    else {
+                        siftUp(position[neighborIndex]);
+                    }
+                }
+            }
+        }
+        return Double.MAX_VALUE;
+    }
+
+
+    /**
+     * getHops Method
+     * Number of edges on the path the last search found, 0 if the target was not reached
+     * Completed in O(path length) time
+     */
+    public int getHops() {
+        int hops = 0;
+        if (lastTarget < 0 || distance[lastTarget] == Float.MAX_VALUE) {
+            return hops;
+        }
+        for (int v = lastTarget; predecessor[v] >= 0; v = predecessor[v]) {
+            hops++;
+        }
+        return hops;
+    }
+
+    // Bound B(hops, length) above for the last search, on its own path, 0 if nothing was found
+    public double getErrorBound() {
+        if (lastTarget < 0 || distance[lastTarget] == Float.MAX_VALUE) {
+            return 0;
+        }
+        return errorBound(getHops(), distance[lastTarget], graph.getMaxCoordinate());
+    }
+
+    /**
+     * errorBound Method
+     * The bound B(k, L) above: how far the float length of a path of k edges and length L can
+     * be from L, given the largest |coordinate| C
+     */
+    public static double errorBound(int hops, double length, double maxCoordinate) {
+        double g = (hops + 1) * UNIT_ROUNDOFF / (1 - (hops + 1) * UNIT_ROUNDOFF);
+        return g * (length + 2 * Math.sqrt(3) * hops * maxCoordinate);
+    }
+
+
+    // Getters for the fields
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    // Bytes taken by the search's arrays
+    public long getMemoryFootprint() {
+        return 16L * distance.length;
+    }
+
+
+    // Helper Methods
+
+    // Inserts a vertex that is not in the heap, ordered by its distance
+    private void add(int vertex) {
+        heap[heapSize] = vertex;
+        position[vertex] = heapSize;
+        siftUp(heapSize);
+        heapSize++;
+    }
+
+    // Removes and returns the vertex with the smallest distance
+    private int poll() {
+        int minimum = heap[0];
+        position[minimum] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return minimum;
+    }
+
+    // Moves the entry at slot up the tree until its parent's distance is no larger
+    private void siftUp(int slot) {
+        int vertex = heap[slot];
+        float key = distance[vertex];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / ARITY;
+            int parent = heap[parentSlot];
+            if (distance[parent] <= key) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = vertex;
+        position[vertex] = slot;
+    }
+
+    // Moves the entry at slot down the tree, swapping with its smallest child, until no child
+    // has a smaller distance
+    private void siftDown(int slot) {
+        int vertex = heap[slot];
+        float key = distance[vertex];
+        while (true) {
+            int firstChild = slot * ARITY + 1;
+            if (firstChild >= heapSize) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, heapSize);
+            int bestSlot = firstChild;
+            float bestKey = distance[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                float childKey = distance[heap[child]];
+                if (childKey < bestKey) {
+                    bestSlot = child;
+                    bestKey = childKey;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            heap[slot] = heap[bestSlot];
+            position[heap[slot]] = slot;
+            slot = bestSlot;
+        }
+        heap[slot] = vertex;
+        position[vertex] = slot;
+    }
+}
@@ -0,0 +1,835 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * ContractionHierarchy Class
+ *
+ * Preprocessed form of a Graph for fast repeated point-to-point queries.  Vertexes are contracted
+ * one at a time, least important first.  Contracting vertex v removes it from the remaining graph,
+ * and for every pair of remaining edges u -> v -> w whose path is the only shortest way from u to w,
+ * adds a shortcut edge u -> w weighted by the sum of the two edges.  Each vertex's rank is the
+ * position in which it was contracted.  Afterwards, every shortest path can be found as a path
+ * that only climbs in rank from the source and only climbs in rank (going backward) from the
+ * target, so a query is a bidirectional Dijkstra over upward edges only
+ * (see ShortestPathSearch.contractionHierarchy()), which touches a tiny part of the graph.
+ *
+ * Importance of a vertex (lower is contracted sooner) is
+ *      edge difference : shortcuts its contraction would add, minus the edges it would remove
+ *      + deleted neighbors : how many of its neighbors have already been contracted
+ * Priorities are updated lazily: the least important vertex is recomputed when removed from the
+ * queue, and put back if it is no longer the least important.
+ * Whether a shortcut is needed is decided by a witness search, a Dijkstra search from u that skips
+ * v and stops after WITNESS_SETTLE_LIMIT vertexes.  If it cannot prove a path no longer than
+ * u -> v -> w, the shortcut is added, which is always safe (only possibly unnecessary).
+ *
+ * Contracting gets more expensive as shortcuts make the remaining graph denser, and on 3-D inputs
+ * the last few percent of vertexes can cost more than all the others together.  So contraction
+ * stops once the remaining graph averages more than CORE_DEGREE_LIMIT edges per vertex.  The
+ * vertexes left over form the core: they rank above everything else and keep all their remaining
+ * edges, and a query searches the core like a plain bidirectional search.  On inputs that are
+ * dense from the start, the whole graph is core and the query is a bidirectional Dijkstra.
+ *
+ * Edges:
+ *      Every edge, original or shortcut, has an id in the edge table.  A shortcut records the two
+ *      edges it replaces (firstHalf, secondHalf), which lets a query expand the path it found back
+ *      into original edges.  Original edges have -1 in both.
+ *      For the query, the edges of vertex v are split into two CSR lists (see Graph):
+ *          up : edges v -> w with rank[w] > rank[v], used by the forward search
+ *          down : edges u -> v with rank[u] > rank[v], used by the backward search
+ * The hierarchy can be saved to disk with save() and read back with load(), so the preprocessing
+ * only has to run once per graph.  The file starts with a fingerprint of the graph it was built
+ * from (its edge count, whether it was renumbered, and a checksum of its edges, coordinates and
+ * numbering), and load() refuses a file whose fingerprint does not match the graph, since a
+ * hierarchy of another graph, or of the same graph in another order, gives wrong distances without
+ * any other sign.  A path found in it is expanded back into original edges with
+ * a PathUnpacker (see below).
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      coreSize : number of vertexes left uncontracted
+ *      rank : contraction order of each vertex, core vertexes last
+ *      edgeFrom, edgeTo, edgeWeight : the edge table
+ *      edgeFirstHalf, edgeSecondHalf : the two edges a shortcut replaces, -1 for original edges
+ *      upOffsets, upTargets, upWeights, upEdges : upward out-edges of each vertex
+ *      downOffsets, downSources, downWeights, downEdges : upward in-edges of each vertex
+ */
+public class ContractionHierarchy {
+    // Vertexes a witness search may settle before giving up
+    public static final int WITNESS_SETTLE_LIMIT = 500;
+
+    // Contraction stops once the remaining graph has more than this many edges per vertex
+    public static final int CORE_DEGREE_LIMIT = 32;
+
+    // Identifies a saved hierarchy file, with the graph's fingerprint after the vertex count
+    private static final int FILE_MAGIC = 0x43484732;
+
+    // Fields
+    private final int numberOfVertexes;
+    private final int coreSize;
+    private final int[] rank;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeWeight;
+    private final int[] edgeFirstHalf;
+    private final int[] edgeSecondHalf;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upEdges;
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downEdges;
+
+
+    // Constructor Method, see build() and load()
+    private ContractionHierarchy(int uncontracted, int[] vertexRank, int[] from, int[] to, double[] weight,
+                                 int[] firstHalf, int[] secondHalf,
+                                 int[] upEdgeOffsets, int[] upEdgeIds, int[] downEdgeOffsets, int[] downEdgeIds) {
+        numberOfVertexes = vertexRank.length;
+        coreSize = uncontracted;
+        rank = vertexRank;
+        edgeFrom = from;
+        edgeTo = to;
+        edgeWeight = weight;
+        edgeFirstHalf = firstHalf;
+        edgeSecondHalf = secondHalf;
+        upOffsets = upEdgeOffsets;
+        upEdges = upEdgeIds;
+        downOffsets = downEdgeOffsets;
+        downEdges = downEdgeIds;
+
+        // Copies the target and weight of each listed edge next to its id, so the query scans
+        // its edges sequentially instead of jumping into the edge table
+        upTargets = new int[upEdges.length];
+        upWeights = new double[upEdges.length];
+        for (int i = 0; i < upEdges.length; i++) {
+            upTargets[i] = edgeTo[upEdges[i]];
+            upWeights[i] = edgeWeight[upEdges[i]];
+        }
+        downSources = new int[downEdges.length];
+        downWeights = new double[downEdges.length];
+        for (int i = 0; i < downEdges.length; i++) {
+            downSources[i] = edgeFrom[downEdges[i]];
+            downWeights[i] = edgeWeight[downEdges[i]];
+        }
+    }
+
+
+    /**
+     * build Method
+     * Contracts every vertex of the graph and returns the resulting hierarchy (see Contractor)
+     */
+    public static ContractionHierarchy build(Graph graph) {
+        return new Contractor(graph).contractAll();
+    }
+
+
+    /**
+     * save Method
+     * Writes the hierarchy to a binary file, after the fingerprint of the graph it was built from.
+     * The upward lists are rebuilt from the edge ids on load, so only the ranks, the edge table and
+     * the edge ids of each list are written.
+     */
+    public void save(File outputFile, Graph graph) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
+        try {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(numberOfVertexes);
+            output.writeInt(graph.getNumberOfEdges());
+            output.writeBoolean(graph.isInInputOrder());
+            output.writeLong(checksum(graph));
+            output.writeInt(coreSize);
+            output.writeInt(edgeFrom.length);
+            output.writeInt(upEdges.length);
+            output.writeInt(downEdges.length);
+            writeInts(output, rank);
+            writeInts(output, edgeFrom);
+            writeInts(output, edgeTo);
+            for (double weight : edgeWeight) {
+                output.writeDouble(weight);
+            }
+            writeInts(output, edgeFirstHalf);
+            writeInts(output, edgeSecondHalf);
+            writeInts(output, upOffsets);
+            writeInts(output, upEdges);
+            writeInts(output, downOffsets);
+            writeInts(output, downEdges);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    /**
+     * load Method
+     * Reads a hierarchy written by save().  The graph is the one the hierarchy was built from,
+     * and is only used to check that it matches the fingerprint in the file.
+     */
+    public static ContractionHierarchy load(File inputFile, Graph graph) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
+        try {
+            if (input.readInt() != FILE_MAGIC) {
+                throw new IOException(inputFile + " is not a saved contraction hierarchy, or was saved by an "
+                        + "older version");
+            }
+            int vertexCount = input.readInt();
+            if (vertexCount != graph.getNumberOfVertexes()) {
+                throw new IOException(inputFile + " was built for " + vertexCount + " vertexes, the graph has "
+                        + graph.getNumberOfVertexes());
+            }
+            int graphEdgeCount = input.readInt();
+            if (graphEdgeCount != graph.getNumberOfEdges()) {
+                throw new IOException(inputFile + " was built for " + graphEdgeCount + " edges, the graph has "
+                        + graph.getNumberOfEdges());
+            }
+            boolean savedInInputOrder = input.readBoolean();
+            if (savedInInputOrder != graph.isInInputOrder()) {
+                throw new IOException(inputFile + (savedInInputOrder
+                        ? " was saved without -hilbert, it must be loaded without it"
+                        : " was saved with -hilbert, it must be loaded with it"));
+            }
+            if (input.readLong() != checksum(graph)) {
+                throw new IOException(inputFile + " was built for a different graph with the same number of "
+                        + "vertexes and edges");
+            }
+            int uncontracted = input.readInt();
+            int edgeCount = input.readInt();
+            int upCount = input.readInt();
+            int downCount = input.readInt();
+
+            int[] rank = readInts(input, vertexCount);
+            int[] from = readInts(input, edgeCount);
+            int[] to = readInts(input, edgeCount);
+            double[] weight = new double[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                weight[i] = input.readDouble();
+            }
+            int[] firstHalf = readInts(input, edgeCount);
+            int[] secondHalf = readInts(input, edgeCount);
+            int[] upEdgeOffsets = readInts(input, vertexCount + 1);
+            int[] upEdgeIds = readInts(input, upCount);
+            int[] downEdgeOffsets = readInts(input, vertexCount + 1);
+            int[] downEdgeIds = readInts(input, downCount);
+
+            return new ContractionHierarchy(uncontracted, rank, from, to, weight, firstHalf, secondHalf,
+                    upEdgeOffsets, upEdgeIds, downEdgeOffsets, downEdgeIds);
+        }
+        finally {
+            input.close();
+        }
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfVertexes() {
+        return numberOfVertexes;
+    }
+    public int getCoreSize() {
+        return coreSize;
+    }
+    public int getRank(int vertex) {
+        return rank[vertex];
+    }
+    public int getNumberOfShortcuts() {
+        int shortcuts = 0;
+        for (int half : edgeFirstHalf) {
+            if (half >= 0) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    // Edge table
+    public int getEdgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+    public int getEdgeTo(int edge) {
+        return edgeTo[edge];
+    }
+    public int getEdgeFirstHalf(int edge) {
+        return edgeFirstHalf[edge];
+    }
+    public int getEdgeSecondHalf(int edge) {
+        return edgeSecondHalf[edge];
+    }
+
+    // Upward out-edges
+    public int[] getUpOffsets() {
+        return upOffsets;
+    }
+    public int[] getUpTargets() {
+        return upTargets;
+    }
+    public double[] getUpWeights() {
+        return upWeights;
+    }
+    public int[] getUpEdges() {
+        return upEdges;
+    }
+
+    // Upward in-edges
+    public int[] getDownOffsets() {
+        return downOffsets;
+    }
+    public int[] getDownSources() {
+        return downSources;
+    }
+    public double[] getDownWeights() {
+        return downWeights;
+    }
+    public int[] getDownEdges() {
+        return downEdges;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * checksum Method
+     * Hashes the graph's edges (offsets and targets), its coordinates and the input index of each
+     * vertex, one whole value at a time in the manner of FNV-1a, so a hierarchy is only loaded
+     * for the same graph in the same numbering it was built for
+     * Efficiency of O(n + m)
+     */
+    private static long checksum(Graph graph) {
+        long hash = 0xcbf29ce484222325L;
+        for (int offset : graph.getOffsets()) {
+            hash = (hash ^ offset) * 0x100000001b3L;
+        }
+        for (int target : graph.getTargets()) {
+            hash = (hash ^ target) * 0x100000001b3L;
+        }
+        for (double coordinate : graph.getCoordinates()) {
+            hash = (hash ^ Double.doubleToLongBits(coordinate)) * 0x100000001b3L;
+        }
+        for (int v = 0; v < graph.getNumberOfVertexes(); v++) {
+            hash = (hash ^ graph.getInputIndex(v)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void writeInts(DataOutputStream output, int[] values) throws IOException {
+        for (int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream input, int length) throws IOException {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+
+
+    // Additional Classes
+
+    /**
+     * PathUnpacker Class
+     * Expands a path found in the hierarchy back into original edges, and adds up its length over
+     * them in source-to-target order, so it matches the plain search to the last digit.  A path is
+     * given as the upward edges of its backward half, from its highest vertex down to the target
+     * (addBackwardEdge()), then its forward half, found by following each vertex's parent edge
+     * back to the source (addForwardHalf()).  Every shortcut is then replaced by the two edges it
+     * stands for, depth first.  Each search object has its own unpacker, since the stack is reused
+     * from one path to the next, while the hierarchy can be shared by any number of them.
+     * Fields:
+     *      hierarchy : the hierarchy the edges belong to
+     *      edges : stack of hierarchy edges, the first edge of the path on top once it is complete
+     *      size : number of edges on the stack
+     *      vertexes, numberOfVertexes : the vertexes of the last path expanded with listVertexes
+     */
+    public static class PathUnpacker {
+        // Fields
+        private final ContractionHierarchy hierarchy;
+        private int[] edges = new int[64];
+        private int size;
+        private int[] vertexes = new int[64];
+        private int numberOfVertexes;
+
+        // Constructor Method
+        public PathUnpacker(ContractionHierarchy pathHierarchy) {
+            hierarchy = pathHierarchy;
+        }
+
+        // Starts a new path, with no edges
+        public void clear() {
+            size = 0;
+        }
+
+        // Adds the next edge of the backward half, going from the highest vertex to the target
+        public void addBackwardEdge(int edge) {
+            push(edge);
+        }
+
+        /**
+         * addForwardHalf Method
+         * Adds the forward half of the path, following parentEdge back from the highest vertex
+         * until a vertex with no parent edge (the source).  Called once the backward half is in
+         * Efficiency of O(path length)
+         */
+        public void addForwardHalf(int[] parentEdge, int highestVertex) {
+            // The backward half goes below the forward half, its target end at the bottom
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int swap = edges[i];
+                edges[i] = edges[j];
+                edges[j] = swap;
+            }
+            for (int vertex = highestVertex; parentEdge[vertex] >= 0; vertex = hierarchy.getEdgeFrom(parentEdge[vertex])) {
+                push(parentEdge[vertex]);
+            }
+        }
+
+        /**
+         * expand Method
+         * Expands the shortcuts of the path and returns its length, added up over the original
+         * edges first edge first.  If listVertexes is set, the vertexes of the path, source first,
+         * are also listed in getVertexes().  Nothing is allocated once the buffers have grown to
+         * fit the longest path.
+         * Efficiency of O(number of original edges on the path)
+         */
+        public double expand(Graph graph, int source, boolean listVertexes) {
+            double length = 0;
+            numberOfVertexes = 0;
+            if (listVertexes) {
+                addVertex(source);
+            }
+            while (size > 0) {
+                int edge = edges[--size];
+                if (hierarchy.getEdgeFirstHalf(edge) < 0) {
+                    length += graph.getDistanceBetween(hierarchy.getEdgeFrom(edge), hierarchy.getEdgeTo(edge));
+                    if (listVertexes) {
+                        addVertex(hierarchy.getEdgeTo(edge));
+                    }
+                }
+                else {
+                    push(hierarchy.getEdgeSecondHalf(edge));
+                    push(hierarchy.getEdgeFirstHalf(edge));
+                }
+            }
+            return length;
+        }
+
+        // Buffer filled by expand(), only the first getNumberOfVertexes() entries belong to the path
+        public int[] getVertexes() {
+            return vertexes;
+        }
+        public int getNumberOfVertexes() {
+            return numberOfVertexes;
+        }
+
+        // Pushes an edge onto the stack, growing it if needed
+        private void push(int edge) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, 2 * edges.length);
+            }
+            edges[size++] = edge;
+        }
+
+        // Adds a vertex to the end of the listed path, growing the buffer if needed
+        private void addVertex(int vertex) {
+            if (numberOfVertexes == vertexes.length) {
+                vertexes = Arrays.copyOf(vertexes, 2 * vertexes.length);
+            }
+            vertexes[numberOfVertexes++] = vertex;
+        }
+    }
+
+    /**
+     * Contractor Class
+     * Holds the state used while building a hierarchy: the edge table, which grows as shortcuts
+     * are added, and the remaining (uncontracted) graph as per-vertex lists of edge ids.
+     * Only used by build().
+     * Fields:
+     *      graph : the input graph
+     *      edgeCount, from, to, weight, firstHalf, secondHalf : the growing edge table
+     *      outEdges, outSize : ids of each vertex's out-edges to uncontracted vertexes
+     *      inEdges, inSize : ids of each vertex's in-edges from uncontracted vertexes
+     *      remainingEdges : number of edges between uncontracted vertexes
+     *      coreSize : number of vertexes left when contraction stopped
+     *      contracted : whether each vertex has been contracted
+     *      deletedNeighbors : number of each vertex's neighbors contracted so far
+     *      upLists, downLists : each vertex's remaining out- and in-edges at the time it was
+     *                           contracted, which are exactly its upward edges
+     *      witnessDistances, witnessDistance, witnessHeap : witness search state, reset in O(1) per
+     *                                                       search (see StampedDistances)
+     *      targetStamp, targetGeneration : marks the vertexes the current witness search must reach
+     *      shortcutFrom, shortcutTo, shortcutWeight, shortcutFirstHalf, shortcutSecondHalf,
+     *      shortcutCount : shortcuts found by the last call to findShortcuts()
+     */
+    private static class Contractor {
+        // Fields
+        private final Graph graph;
+        private final int numberOfVertexes;
+
+        private int edgeCount;
+        private int[] from;
+        private int[] to;
+        private double[] weight;
+        private int[] firstHalf;
+        private int[] secondHalf;
+
+        private final int[][] outEdges;
+        private final int[] outSize;
+        private final int[][] inEdges;
+        private final int[] inSize;
+        private long remainingEdges;
+        private int coreSize;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbors;
+        private final int[][] upLists;
+        private final int[][] downLists;
+
+        private final StampedDistances witnessDistances;
+        private final double[] witnessDistance;
+        private final IndexedHeap witnessHeap;
+        private final int[] targetStamp;
+        private int targetGeneration;
+
+        private int[] shortcutFrom = new int[16];
+        private int[] shortcutTo = new int[16];
+        private double[] shortcutWeight = new double[16];
+        private int[] shortcutFirstHalf = new int[16];
+        private int[] shortcutSecondHalf = new int[16];
+        private int shortcutCount;
+
+
+        // Constructor Method
+        // Copies the input graph into the edge table and the per-vertex lists.  Self loops are
+        // dropped, and of several edges between the same pair only the lightest is kept.
+        // Efficiency of O(n + m)
+        Contractor(Graph inputGraph) {
+            graph = inputGraph;
+            numberOfVertexes = graph.getNumberOfVertexes();
+            int numberOfEdges = graph.getNumberOfEdges();
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+
+            from = new int[Math.max(16, 2 * numberOfEdges)];
+            to = new int[from.length];
+            weight = new double[from.length];
+            firstHalf = new int[from.length];
+            secondHalf = new int[from.length];
+            edgeCount = 0;
+
+            outEdges = new int[numberOfVertexes][];
+            outSize = new int[numberOfVertexes];
+            inEdges = new int[numberOfVertexes][];
+            inSize = new int[numberOfVertexes];
+            contracted = new boolean[numberOfVertexes];
+            deletedNeighbors = new int[numberOfVertexes];
+            upLists = new int[numberOfVertexes][];
+            downLists = new int[numberOfVertexes][];
+
+            for (int v = 0; v < numberOfVertexes; v++) {
+                outEdges[v] = new int[Math.max(2, offsets[v + 1] - offsets[v])];
+                inEdges[v] = new int[2];
+            }
+
+            // lastSourceOf[w] == u if an edge u -> w was already seen while scanning u, which
+            // finds duplicate edges in O(1)
+            int[] lastSourceOf = new int[numberOfVertexes];
+            Arrays.fill(lastSourceOf, -1);
+            for (int u = 0; u < numberOfVertexes; u++) {
+                for (int edge = offsets[u]; edge < offsets[u + 1]; edge++) {
+                    int w = targets[edge];
+                    if (w == u) {
+                        continue;
+                    }
+                    if (lastSourceOf[w] == u) {
+                        // Duplicates of one edge have the same Euclidean length, so one is enough
+                        continue;
+                    }
+                    lastSourceOf[w] = u;
+                    attachEdge(addEdge(u, w, graph.getEdgeWeight(u, edge), -1, -1));
+                }
+            }
+
+            witnessDistances = new StampedDistances(numberOfVertexes);
+            witnessDistance = witnessDistances.getValues();
+            witnessHeap = new IndexedHeap(witnessDistance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+            targetStamp = new int[numberOfVertexes];
+            targetGeneration = 0;
+        }
+
+
+        /**
+         * contractAll Method
+         * Contracts the vertexes in order of importance, then lays out the upward edge lists.
+         * The queue is an indexed heap over each vertex's last computed importance.
+         */
+        ContractionHierarchy contractAll() {
+            double[] importance = new double[numberOfVertexes];
+            IndexedHeap queue = new IndexedHeap(importance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+            // An input already denser than the core limit is all core, so its importances
+            // are never used and are not computed
+            boolean denseInput = remainingEdges > (long) CORE_DEGREE_LIMIT * numberOfVertexes;
+            for (int v = 0; v < numberOfVertexes; v++) {
+                importance[v] = denseInput ? 0 : computeImportance(v);
+                queue.add(v);
+            }
+
+            int[] rank = new int[numberOfVertexes];
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                // Stops once the remaining graph has become too dense to contract cheaply
+                if (remainingEdges > (long) CORE_DEGREE_LIMIT * queue.size()) {
+                    break;
+                }
+                int v = queue.poll();
+
+                // Lazy update: if v got more important since it was queued, put it back.
+                // Otherwise the shortcuts just found are the ones contract() adds
+                double current = computeImportance(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    importance[v] = current;
+                    queue.add(v);
+                    continue;
+                }
+
+                rank[v] = nextRank++;
+                contract(v);
+            }
+
+            // Whatever is left is the core.  Core vertexes rank above every contracted vertex,
+            // and keep all of their remaining edges in both directions, so the query searches
+            // the core like a plain bidirectional Dijkstra
+            coreSize = queue.size();
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                rank[v] = nextRank++;
+                upLists[v] = Arrays.copyOf(outEdges[v], outSize[v]);
+                downLists[v] = Arrays.copyOf(inEdges[v], inSize[v]);
+            }
+
+            // Lays the upward lists out as CSR arrays of edge ids
+            int[] upOffsets = new int[numberOfVertexes + 1];
+            int[] downOffsets = new int[numberOfVertexes + 1];
+            for (int v = 0; v < numberOfVertexes; v++) {
+                upOffsets[v + 1] = upOffsets[v] + upLists[v].length;
+                downOffsets[v + 1] = downOffsets[v] + downLists[v].length;
+            }
+            int[] upEdgeIds = new int[upOffsets[numberOfVertexes]];
+            int[] downEdgeIds = new int[downOffsets[numberOfVertexes]];
+            for (int v = 0; v < numberOfVertexes; v++) {
+                System.arraycopy(upLists[v], 0, upEdgeIds, upOffsets[v], upLists[v].length);
+                System.arraycopy(downLists[v], 0, downEdgeIds, downOffsets[v], downLists[v].length);
+            }
+
+            return new ContractionHierarchy(coreSize, rank, Arrays.copyOf(from, edgeCount), Arrays.copyOf(to, edgeCount),
+                    Arrays.copyOf(weight, edgeCount), Arrays.copyOf(firstHalf, edgeCount),
+                    Arrays.copyOf(secondHalf, edgeCount), upOffsets, upEdgeIds, downOffsets, downEdgeIds);
+        }
+
+
+        // Importance of v: edge difference plus deleted neighbors
+        private double computeImportance(int v) {
+            findShortcuts(v);
+            int edgeDifference = shortcutCount - outSize[v] - inSize[v];
+            return edgeDifference + deletedNeighbors[v];
+        }
+
+        /**
+         * contract Method
+         * Removes v from the remaining graph.  Its remaining edges become its upward lists, the
+         * shortcuts it needs are added, and each neighbor's deleted-neighbor count goes up.
+         * Must directly follow computeImportance(v), whose shortcut buffers it uses.
+         */
+        private void contract(int v) {
+            upLists[v] = Arrays.copyOf(outEdges[v], outSize[v]);
+            downLists[v] = Arrays.copyOf(inEdges[v], inSize[v]);
+            contracted[v] = true;
+            remainingEdges -= outSize[v] + inSize[v];
+
+            // Detaches v from its neighbors
+            for (int i = 0; i < outSize[v]; i++) {
+                int id = outEdges[v][i];
+                removeFromList(inEdges[to[id]], inSize, to[id], id);
+                deletedNeighbors[to[id]]++;
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                int id = inEdges[v][i];
+                removeFromList(outEdges[from[id]], outSize, from[id], id);
+                deletedNeighbors[from[id]]++;
+            }
+
+            // Adds the shortcuts, replacing a heavier edge between the same pair if there is one
+            for (int i = 0; i < shortcutCount; i++) {
+                int u = shortcutFrom[i];
+                int w = shortcutTo[i];
+                int existing = findEdge(u, w);
+                if (existing >= 0) {
+                    if (weight[existing] <= shortcutWeight[i]) {
+                        continue;
+                    }
+                    removeFromList(outEdges[u], outSize, u, existing);
+                    removeFromList(inEdges[w], inSize, w, existing);
+                    remainingEdges--;
+                }
+                int id = addEdge(u, w, shortcutWeight[i], shortcutFirstHalf[i], shortcutSecondHalf[i]);
+                attachEdge(id);
+            }
+        }
+
+        /**
+         * findShortcuts Method
+         * Fills the shortcut buffers with the shortcuts contracting v would need.  For each
+         * remaining in-neighbor u, one witness search from u (skipping v) checks every remaining
+         * out-neighbor w of v at once.
+         */
+        private void findShortcuts(int v) {
+            shortcutCount = 0;
+            for (int i = 0; i < inSize[v]; i++) {
+                int inEdge = inEdges[v][i];
+                int u = from[inEdge];
+
+                // Longest path through v that the witness search has to beat
+                double limit = 0;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = to[outEdges[v][j]];
+                    if (w != u) {
+                        limit = Math.max(limit, weight[inEdge] + weight[outEdges[v][j]]);
+                    }
+                }
+
+                // Marks the out-neighbors the witness search has to settle
+                targetGeneration++;
+                int targetCount = 0;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = to[outEdges[v][j]];
+                    if (w != u && targetStamp[w] != targetGeneration) {
+                        targetStamp[w] = targetGeneration;
+                        targetCount++;
+                    }
+                }
+
+                witnessSearch(u, v, limit, targetCount);
+
+                for (int j = 0; j < outSize[v]; j++) {
+                    int outEdge = outEdges[v][j];
+                    int w = to[outEdge];
+                    if (w == u) {
+                        continue;
+                    }
+                    double throughV = weight[inEdge] + weight[outEdge];
+                    if (witnessDistances.isSet(w) && witnessDistance[w] <= throughV) {
+                        continue;
+                    }
+                    addShortcut(u, w, throughV, inEdge, outEdge);
+                }
+            }
+        }
+
+        /**
+         * witnessSearch Method
+         * Dijkstra search from u in the remaining graph without v.  Stops once every marked
+         * target is settled, the closest vertex is farther than limit, or WITNESS_SETTLE_LIMIT
+         * vertexes have been settled.
+         */
+        private void witnessSearch(int u, int skipped, double limit, int targetCount) {
+            witnessDistances.nextGeneration();
+            witnessHeap.clear();
+            witnessDistances.set(u, 0);
+            witnessHeap.add(u);
+
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (witnessHeap.peekKey() > limit) {
+                    break;
+                }
+                int current = witnessHeap.poll();
+                settled++;
+                if (targetStamp[current] == targetGeneration && --targetCount == 0) {
+                    break;
+                }
+                for (int i = 0; i < outSize[current]; i++) {
+                    int id = outEdges[current][i];
+                    int next = to[id];
+                    if (next == skipped) {
+                        continue;
+                    }
+                    double newDistance = witnessDistance[current] + weight[id];
+                    if (newDistance < witnessDistances.get(next)) {
+                        witnessDistances.set(next, newDistance);
+                        witnessHeap.addOrDecreaseKey(next);
+                    }
+                }
+            }
+        }
+
+
+        // Edge table and list helpers
+
+        private int addEdge(int u, int w, double edgeLength, int first, int second) {
+            if (edgeCount == from.length) {
+                int newLength = 2 * from.length;
+                from = Arrays.copyOf(from, newLength);
+                to = Arrays.copyOf(to, newLength);
+                weight = Arrays.copyOf(weight, newLength);
+                firstHalf = Arrays.copyOf(firstHalf, newLength);
+                secondHalf = Arrays.copyOf(secondHalf, newLength);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = w;
+            weight[edgeCount] = edgeLength;
+            firstHalf[edgeCount] = first;
+            secondHalf[edgeCount] = second;
+            return edgeCount++;
+        }
+
+        // Adds an edge to its endpoints' remaining lists
+        private void attachEdge(int id) {
+            int u = from[id];
+            int w = to[id];
+            remainingEdges++;
+            if (outSize[u] == outEdges[u].length) {
+                outEdges[u] = Arrays.copyOf(outEdges[u], 2 * outEdges[u].length);
+            }
+            outEdges[u][outSize[u]++] = id;
+            if (inSize[w] == inEdges[w].length) {
+                inEdges[w] = Arrays.copyOf(inEdges[w], 2 * inEdges[w].length);
+            }
+            inEdges[w][inSize[w]++] = id;
+        }
+
+        // Id of the remaining edge u -> w, or -1
+        private int findEdge(int u, int w) {
+            for (int i = 0; i < outSize[u]; i++) {
+                if (to[outEdges[u][i]] == w) {
+                    return outEdges[u][i];
+                }
+            }
+            return -1;
+        }
+
+        // Removes id from a vertex's list by moving the last entry into its place
+        private void removeFromList(int[] list, int[] sizes, int vertex, int id) {
+            for (int i = 0; i < sizes[vertex]; i++) {
+                if (list[i] == id) {
+                    list[i] = list[--sizes[vertex]];
+                    return;
+                }
+            }
+        }
+
+        private void addShortcut(int u, int w, double shortcutLength, int first, int second) {
+            if (shortcutCount == shortcutFrom.length) {
+                int newLength = 2 * shortcutFrom.length;
+                shortcutFrom = Arrays.copyOf(shortcutFrom, newLength);
+                shortcutTo = Arrays.copyOf(shortcutTo, newLength);
+                shortcutWeight = Arrays.copyOf(shortcutWeight, newLength);
+                shortcutFirstHalf = Arrays.copyOf(shortcutFirstHalf, newLength);
+                shortcutSecondHalf = Arrays.copyOf(shortcutSecondHalf, newLength);
+            }
+            shortcutFrom[shortcutCount] = u;
+            shortcutTo[shortcutCount] = w;
+            shortcutWeight[shortcutCount] = shortcutLength;
+            shortcutFirstHalf[shortcutCount] = first;
+            shortcutSecondHalf[shortcutCount] = second;
+            shortcutCount++;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * DeltaStepping Class
+ *
+ * Multi-threaded single-source shortest paths: computes the distance from one source to every
+ * vertex of a Graph with the delta-stepping algorithm (Meyer and Sanders), run on a ForkJoinPool.
+ * Dijkstra's algorithm settles one vertex at a time, which leaves nothing to run in parallel.
+ * Delta-stepping instead groups vertexes into buckets of width delta by their tentative distance,
+ * bucket i holding distances in [i * delta, (i + 1) * delta), and relaxes the edges of every vertex
+ * in the lowest bucket at once, on all threads.
+ *
+ * Edges are split by weight:
+ *      light : weight <= delta, may put a vertex back into the bucket being processed, so they
+ *              are relaxed repeatedly until the bucket stays empty
+ *      heavy : weight > delta, can only reach later buckets, so they are relaxed once per bucket,
+ *              for every vertex that was removed from it
+ * A vertex's distance can be lowered by several threads at once.  Distances are kept as the long
+ * bits of the double (see Double.doubleToRawLongBits()), which for non-negative doubles sort in the
+ * same order as the values, so a relaxation is a compare-and-set loop on an AtomicLongArray and
+ * never takes a lock.  When a relaxation lowers a distance, the thread notes the vertex in its own
+ * list, and the lists are filed into buckets between rounds.  Old bucket entries are not removed,
+ * they are skipped when their vertex's distance no longer falls in the bucket.
+ *
+ * Delta trades work for parallelism.  A small delta behaves like Dijkstra (few vertexes per bucket,
+ * little parallel work, nothing relaxed twice), a large delta like Bellman-Ford (many vertexes per
+ * bucket, but some relaxed several times).  The default is the average edge weight.
+ * Only buckets within the largest edge weight of the current one can be in use, so the buckets
+ * are kept in a circular array of that many lists.
+ * The final distances are the same as Dijkstra's: each is the smallest distance plus edge weight
+ * over the vertex's in-edges, added up in the same order.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ *
+ * Fields:
+ *      graph : the graph being searched
+ *      delta : bucket width
+ *      edgeOffsets, edgeTargets, edgeWeights : the graph's out-edges with their weights, each
+ *                                              vertex's light edges first
+ *      lightEnd : end of each vertex's light edges
+ *      distanceBits : tentative distance of each vertex, as double bits
+ *      buckets : circular array of buckets, each a list of vertexes
+ *      pendingEntries : number of entries across all buckets
+ *      roundStamp : last round in which each vertex was taken from a bucket, for skipping duplicates
+ *      bucketStamp : last bucket in which each vertex was settled, for listing each once
+ *      frontier : vertexes whose edges are relaxed in the current round
+ *      settled : vertexes removed from the current bucket, whose heavy edges are relaxed at the end
+ *      workers : one relaxation task per thread, each with its own list of lowered vertexes
+ *      threadPool : the worker threads
+ *      expandedCount : number of vertexes taken from a bucket in the last search, repeats included
+ *      numberOfPhases : number of light edge rounds in the last search
+ */
+public class DeltaStepping {
+    // Frontiers smaller than this are relaxed on the calling thread, without waking the pool
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    // Vertexes a worker claims at a time from the frontier
+    public static final int CHUNK_SIZE = 256;
+
+    // Fields
+    private final Graph graph;
+    private final double delta;
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final double[] edgeWeights;
+    private final int[] lightEnd;
+    private final AtomicLongArray distanceBits;
+    private final IntList[] buckets;
+    private long pendingEntries;
+    private final int[] roundStamp;
+    private final int[] bucketStamp;
+    private final IntList frontier;
+    private final IntList settled;
+    private final Relaxer[] workers;
+    private final ForkJoinPool threadPool;
+    private long expandedCount;
+    private int numberOfPhases;
+
+
+    // Constructor Methods
+    public DeltaStepping(Graph searchGraph, int numberOfThreads) {
+        this(searchGraph, averageEdgeWeight(searchGraph), numberOfThreads);
+    }
+
+    public DeltaStepping(Graph searchGraph, double bucketWidth, int numberOfThreads) {
+        if (!(bucketWidth > 0)) {
+            throw new IllegalArgumentException("Delta must be positive, was " + bucketWidth);
+        }
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1, was " + numberOfThreads);
+        }
+        graph = searchGraph;
+        delta = bucketWidth;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+
+        // Copies the edges with their weights, light edges of each vertex first
+        // Efficiency of O(n + m)
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        edgeOffsets = offsets;
+        edgeTargets = new int[targets.length];
+        edgeWeights = new double[targets.length];
+        lightEnd = new int[numberOfVertexes];
+        double maxWeight = 0;
+        for (int v = 0; v < numberOfVertexes; v++) {
+            int light = offsets[v];
+            int heavy = offsets[v + 1];
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                double weight = graph.getEdgeWeight(v, edge);
+                int slot = (weight <= delta) ? light++ : --heavy;
+                edgeTargets[slot] = targets[edge];
+                edgeWeights[slot] = weight;
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            lightEnd[v] = light;
+        }
+
+        // Enough buckets to cover the current one plus the largest edge weight
+        double bucketsNeeded = Math.floor(maxWeight / delta) + 2;
+        if (bucketsNeeded > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Delta " + delta + " is too small for the largest edge weight " + maxWeight);
+        }
+        buckets = new IntList[(int) bucketsNeeded];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntList();
+        }
+
+        distanceBits = new AtomicLongArray(numberOfVertexes);
+        roundStamp = new int[numberOfVertexes];
+        bucketStamp = new int[numberOfVertexes];
+        frontier = new IntList();
+        settled = new IntList();
+        workers = new Relaxer[numberOfThreads];
+        for (int i = 0; i < numberOfThreads; i++) {
+            workers[i] = new Relaxer();
+        }
+        threadPool = new ForkJoinPool(numberOfThreads);
+    }
+
+
+    /**
+     * distancesFrom Method
+     * Computes the distance from source to every vertex, and returns them indexed by vertex,
+     * MAX for vertexes the source cannot reach.  The object can be used for any number of
+     * sources, one at a time.
+     */
+    public double[] distancesFrom(int source) {
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        long maxBits = Double.doubleToRawLongBits(Double.MAX_VALUE);
+        for (int v = 0; v < numberOfVertexes; v++) {
+            distanceBits.set(v, maxBits);
+        }
+        Arrays.fill(roundStamp, 0);
+        Arrays.fill(bucketStamp, 0);
+        for (IntList bucket : buckets) {
+            bucket.clear();
+        }
+        pendingEntries = 0;
+        expandedCount = 0;
+        numberOfPhases = 0;
+
+        distanceBits.set(source, Double.doubleToRawLongBits(0));
+        addToBucket(source);
+
+        // Processes the buckets in order, until every bucket is empty
+        int round = 0;
+        int bucketMark = 0;
+        for (long bucketNumber = 0; pendingEntries > 0; bucketNumber++) {
+            IntList bucket = buckets[(int) (bucketNumber % buckets.length)];
+            if (bucket.size == 0) {
+                continue;
+            }
+            bucketMark++;
+            settled.clear();
+
+            // Light edges: relaxes the bucket's vertexes until no vertex is lowered into it again
+            while (bucket.size > 0) {
+                round++;
+                frontier.clear();
+                for (int i = 0; i < bucket.size; i++) {
+                    int vertex = bucket.values[i];
+                    if (roundStamp[vertex] != round && bucketOf(getDistance(vertex)) == bucketNumber) {
+                        roundStamp[vertex] = round;
+                        frontier.add(vertex);
+                        if (bucketStamp[vertex] != bucketMark) {
+                            bucketStamp[vertex] = bucketMark;
+                            settled.add(vertex);
+                        }
+                    }
+                }
+                pendingEntries -= bucket.size;
+                bucket.clear();
+
+                expandedCount += frontier.size;
+                numberOfPhases++;
+                relaxAll(frontier, true);
+            }
+
+            // Heavy edges: relaxed once for every vertex settled in this bucket
+            relaxAll(settled, false);
+        }
+
+        double[] distance = new double[numberOfVertexes];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            distance[v] = getDistance(v);
+        }
+        return distance;
+    }
+
+    // Stops the worker threads, once no more searches are needed
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+
+
+    // Getters for the search settings and the work done by the last search
+    public double getDelta() {
+        return delta;
+    }
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+    public int getNumberOfPhases() {
+        return numberOfPhases;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * relaxAll Method
+     * Relaxes the light (or heavy) edges of every vertex in the list, on the pool if the list is
+     * large enough to be worth it, then files every lowered vertex into its new bucket.
+     */
+    private void relaxAll(final IntList vertexes, final boolean light) {
+        if (vertexes.size < PARALLEL_THRESHOLD || workers.length == 1) {
+            workers[0].relaxRange(vertexes, 0, vertexes.size, light);
+            fileLowered(workers[0]);
+            return;
+        }
+
+        // Each worker claims chunks of the list from a shared counter until it is used up
+        final AtomicInteger nextChunk = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(workers.length);
+        for (final Relaxer worker : workers) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    int start = nextChunk.getAndAdd(CHUNK_SIZE);
+                    while (start < vertexes.size) {
+                        worker.relaxRange(vertexes, start, Math.min(start + CHUNK_SIZE, vertexes.size), light);
+                        start = nextChunk.getAndAdd(CHUNK_SIZE);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        // Waits for every worker, passing on any failure
+        for (Future<Void> task : threadPool.invokeAll(tasks)) {
+            try {
+                task.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while relaxing edges", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Relaxation worker failed", e.getCause());
+            }
+        }
+        for (Relaxer worker : workers) {
+            fileLowered(worker);
+        }
+    }
+
+    // Files the vertexes a worker lowered into the buckets of their distances, and empties its list
+    private void fileLowered(Relaxer worker) {
+        for (int i = 0; i < worker.lowered.size; i++) {
+            addToBucket(worker.lowered.values[i]);
+        }
+        worker.lowered.clear();
+    }
+
+    // Adds a vertex to the bucket of its current distance
+    private void addToBucket(int vertex) {
+        buckets[(int) (bucketOf(getDistance(vertex)) % buckets.length)].add(vertex);
+        pendingEntries++;
+    }
+
+    // Absolute number of the bucket a distance falls in
+    private long bucketOf(double distance) {
+        return (long) (distance / delta);
+    }
+
+    private double getDistance(int vertex) {
+        return Double.longBitsToDouble(distanceBits.get(vertex));
+    }
+
+    /**
+     * lowerDistance Method
+     * Sets the vertex's distance to newDistance if that is smaller, and returns whether it was.
+     * Safe to call from several threads at once: the compare-and-set only succeeds if no other
+     * thread changed the distance since it was read, otherwise the new value is compared again.
+     */
+    private boolean lowerDistance(int vertex, double newDistance) {
+        long newBits = Double.doubleToRawLongBits(newDistance);
+        long oldBits = distanceBits.get(vertex);
+        while (newBits < oldBits) {
+            if (distanceBits.compareAndSet(vertex, oldBits, newBits)) {
+                return true;
+            }
+            oldBits = distanceBits.get(vertex);
+        }
+        return false;
+    }
+
+    // Average weight of the graph's edges, the default delta
+    private static double averageEdgeWeight(Graph graph) {
+        int[] offsets = graph.getOffsets();
+        double total = 0;
+        for (int v = 0; v < graph.getNumberOfVertexes(); v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                total += graph.getEdgeWeight(v, edge);
+            }
+        }
+        // Any positive width works for a graph without edges (or with only zero-weight edges)
+        return (total > 0) ? total / graph.getNumberOfEdges() : 1;
+    }
+
+
+    // Additional Classes
+
+    /**
+     * Relaxer Class
+     * One worker's share of a round: relaxes the edges of a range of vertexes, and notes every
+     * vertex it lowers.
+     * Fields:
+     *      lowered : vertexes whose distance this worker lowered, possibly more than once each
+     */
+    private class Relaxer {
+        // Fields
+        private final IntList lowered = new IntList();
+
+        // Relaxes the light or heavy edges of vertexes[start, end)
+        private void relaxRange(IntList vertexes, int start, int end, boolean light) {
+            for (int i = start; i < end; i++) {
+                int vertex = vertexes.values[i];
+                double vertexDistance = getDistance(vertex);
+                int first = light ? edgeOffsets[vertex] : lightEnd[vertex];
+                int last = light ? lightEnd[vertex] : edgeOffsets[vertex + 1];
+                for (int edge = first; edge < last; edge++) {
+                    if (lowerDistance(edgeTargets[edge], vertexDistance + edgeWeights[edge])) {
+                        lowered.add(edgeTargets[edge]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * IntList Class
+     * Growable list of ints, reused between rounds without allocating.
+     * Fields:
+     *      values : the list, only the first size entries are in use
+     *      size : number of entries
+     */
+    private static class IntList {
+        // Fields
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+}
@@ -9,233 +9,613 @@ import java.io.*;
  * between vertex 1 and vertex N (the last vertex listed in the input) in a connected, directed
  * graph.  See README in resources folder for a description of the input format. 
  * For complexity arguments, n = number of vertexes, while m = edges.
- * Construction of the graph takes O(n+m) time.  Because of PriorityQueue implementation, 
- * Dijkstra's runs with a time complexity of O(mlog(n)).
+ * Construction of the graph takes O(n+m) time.  Because of the indexed d-ary heap used for the
+ * frontier (see IndexedHeap), Dijkstra's runs with a time complexity of O(mlog(n)).
+ * An optional A* mode orders the search by a straight-line lower bound to vertex N, expanding
+ * far fewer vertexes on spatial inputs (see ShortestPathSearch).
+ * The path itself can optionally be written to a file.  Each relaxation records the vertex it came
+ * from, so listing the path adds only O(path length) to the search.
  * 
  * Sections of Program:
  *      Main Method
- *          reads in the input and constructs the graph
- *          adds the point in the graph to a priority queue
- *          apply Dijkstra's Algorithm based on distance on the x,y,z plane
+ *          reads in the input and constructs the graph (compressed-sparse-row, see Graph)
+ *          apply Dijkstra's Algorithm (or A* / bidirectional) based on distance on the x,y,z plane,
+ *          stopping once point n is reached
  *          Print distance from point 1 to point n
+ *          (and, with -path, write the path from point 1 to point n to a file)
+ *          (or, with -batch, answer a whole file of queries on a pool of threads)
+ *          (or, with -matrix, compute the distances between two lists of vertexes)
+ *          (or, with -facilities, find every vertex's nearest facility in one search)
+ *          (or, with -kPaths, print the k shortest loopless paths from point 1 to point n)
  *      Helper Methods
  *          getDistanceBetween()
  *      Additional Classes
- *          Vertex
  *          Location
- *          DistanceComparator
- *
- *  To Do:
- * 		Create optional return of file describing actual shortest path
- *  	Determine the new runtime efficiency after optional return addition
+ *      Graph (separate file)
+ *      IndexedHeap (separate file)
+ *      ShortestPathSearch (separate file)
+ *      StampedDistances (separate file)
+ *      BatchQueryEngine (separate file)
+ *      ContractionHierarchy (separate file)
+ *      Landmarks (separate file)
+ *      DeltaStepping (separate file)
+ *      HilbertCurve (separate file)
+ *      DynamicShortestPaths (separate file)
+ *      DistanceMatrix (separate file)
+ *      QuantizedSearch, RadixHeap (separate files)
+ *      NearestFacilities (separate file)
+ *      KShortestPaths (separate file)
+ *      Reachability (separate file)
+ *      KdTree (separate file)
+ *      RadiusSearch (separate file)
+ *      CompactGraph, CompactSearch (separate files)
+ *      CompactCheck (separate file, checks the compact pipeline against the tests)
+ *      Benchmark (separate file, its own main method)
 **/
 
 public class Dijkstra {
+    
+    // Number of children per node in the frontier heap (see IndexedHeap)
+    public static final int HEAP_ARITY = 4;
 
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         //  Reader and Set-Up Section
 
-        // Initialize the input scanner
-        File inputFile = new File(args[0]);
-        Scanner inputScanner = new Scanner(inputFile);
-        
-        // Reads the first line for number of vertexes(n) and edges(m)
-        int numberOfVertexes = inputScanner.nextInt();
-        int numberOfEdges = inputScanner.nextInt();
-        
-        // Initializes the lists in memory of vertexes
-        Vertex[] vertexList = new Vertex[numberOfVertexes];
-        
-        
-        // Reads next n lines for Vertex, initializing the object and getting the 
-        // location of the point in space.  Adding Neighbors is done at next step
-        // Efficiency of O(n)
-        for (int i = 0; i < numberOfVertexes; i++) {
-            
-            // Reads in line from the input and initializes the corresponding variables
-            double xCoordinate = inputScanner.nextDouble();
-            double yCoordinate = inputScanner.nextDouble();
-            double zCoordinate = inputScanner.nextDouble();
-            
-            // Creates the Vertex object and assigns it to the vertexList
-            // Note: the vertex's number is its list index + 1
-            Vertex newVertex = new Vertex((i + 1), new Location(xCoordinate, yCoordinate , zCoordinate));
-            vertexList[i] = newVertex;
-            
-        }
-        
-        // Reads the next m lines for adding neighbors to the Vertexes       
-        // Efficiency of O(m)
-        for (int i = 0; i < numberOfEdges; i++) {
-            
-            // Reads in line from the input and initializes the corresponding variables
-            int sourceVertexIndex = inputScanner.nextInt() - 1;
-            int destinationVertexIndex = inputScanner.nextInt() - 1;
-            
-            // Adds the neighbor to the source vertex, effectively creating an edge
-            vertexList[sourceVertexIndex].addNeighbor(vertexList[destinationVertexIndex]);
-        }
-        // Efficiency up until this point should be O(n + m), with the creation of Vertexes
-        // and the addition of their neighbors dominating the runtime
-        
-        
-        // Now, we loop over the vertexList and add each Vertex to a PriorityQueue, ordered
-        // by distance from Vertex 1.  This will then be used in Dijkstra's Algorithm
-        // Efficiency of O(n)
-        Comparator<Vertex> comparator = new DistanceComparator();
-        PriorityQueue<Vertex> vertexPriorityQueue = new PriorityQueue<Vertex>(numberOfVertexes, comparator);
-        
-        for (int i = 0; i< numberOfVertexes; i++) {
-            vertexPriorityQueue.add(vertexList[i]);
-        }
- 
-        
-        // Implementation of Dijkstra's Algorithm:
-        // We start by selecting the first Vertex in the PriorityQueue, which to begin will
-        // be Vertex 1.  We process all of the vertex's neighbors, updating their distances from
-        // Vertex 1 as we go.  Once all a vertex's neighbors have been processed, we put the vertex
-        // in the visited list.  Once the PriorityQueue is empty, we have all the shortest paths from
-        // Vertex 1 to all other Vertexs, including the Nth vertex.  This Nth vertex's distance
-        // from Vertex 1 is then printed to console.
-        // This algorithm basically performs a BFS on the constructed graph.  So, the time complexity
-        // is O(n + m), scanning each vertex and its edges once
-        
-        // Initialize the visited list
-        int vertexesVisited = 0;
-        
-        // for loop that runs over each vertex, implementing Dijsktra's Algorithm on the distance 
-        // from its neighbors and distance from Vertex 1
-        while (vertexesVisited != numberOfVertexes) {
-            // Grabs the current vertex for processing its neighbors
-            
-            Vertex currentVertex = vertexPriorityQueue.peek();
-            
-            // Grabs the shortest distance neighbor and updates its distance, if needed
-            Vertex currentNeighbor = currentVertex.getNeighbor();
-            
-            // Checks if the vertex has any neighbors that have not been visited
-            if (currentNeighbor != null) {
-                double distanceToNeighbor = getDistanceBetween(currentVertex, currentNeighbor);
-                
-                if (currentVertex.getDistanceFromStart() + distanceToNeighbor < currentNeighbor.getDistanceFromStart()) {
-                    currentNeighbor.setDistanceFromStart(currentVertex.getDistanceFromStart() + distanceToNeighbor);
-                    
-                    // Adds the updated, lowered distance Vertex to the PriorityQueue, acting as
-                    // a quasi decrease-key method
-                    vertexPriorityQueue.add(currentNeighbor);
+        // Reads the optional flags that follow the input file
+        //      -astar : goal-directed search instead of plain Dijkstra (see ShortestPathSearch)
+        //      -bidirectional : searches from both ends at once (see ShortestPathSearch)
+        //      -ch : preprocesses the graph into a contraction hierarchy and queries that
+        //      -chSave <file> : with -ch, also saves the hierarchy to the file
+        //      -chLoad <file> : queries a hierarchy saved earlier instead of building one
+        //      -alt <k> : A* with k landmarks as the lower bound (see Landmarks)
+        //      -radix <r> : Dijkstra on distances rounded to multiples of r, with a radix heap (see QuantizedSearch)
+        //      -deltaStepping : computes the distance to every vertex on a pool of threads (see DeltaStepping)
+        //      -delta <d> : bucket width for -deltaStepping, defaults to the average edge weight
+        //      -compact : loads the graph and searches it in single precision, for inputs too large
+        //                 otherwise (see CompactSearch), only with -stats
+        //      -weightsOnTheFly : computes edge weights during the search instead of storing them (see Graph)
+        //      -hilbert : renumbers the vertexes along a Hilbert curve before searching (see HilbertCurve)
+        //      -updates <file> : applies the edge changes in the file, printing the distances it asks for
+        //                        (see DynamicShortestPaths)
+        //      -batch <file> : answers every query in the file instead of 1 to N (see BatchQueryEngine)
+        //      -snap : with -batch, each query gives two points as x y z x y z, snapped to their nearest
+        //              vertexes (see KdTree)
+        //      -matrix <file> : prints the distance from every source to every target listed in the file,
+        //                       as CSV (see DistanceMatrix), using the hierarchy with -ch or -chLoad
+        //      -matrixOut <file> : with -matrix, writes the matrix to the file instead of the console
+        //      -binary : with -matrixOut, writes the matrix as binary instead of CSV
+        //      -facilities <file> : prints every vertex's nearest facility from the file, and the distance
+        //                           to it (see NearestFacilities)
+        //      -radius <r> : prints every vertex within distance r of vertex 1, nearest first (see RadiusSearch)
+        //      -kPaths <k> : prints the lengths of the k shortest loopless paths from 1 to N (see KShortestPaths)
+        //      -path <file> : also writes the shortest path(s) to the file (see ShortestPathSearch.writePath())
+        //      -threads <k> : number of worker threads for -batch or -deltaStepping, defaults to one per core
+        //      -noPrune : searches the whole graph, instead of only the vertexes on some path from 1 to N
+        //      -stats : also prints how many vertexes the search expanded, next to plain Dijkstra
+        // If several search flags are given, the last one wins
+        int searchMode = ShortestPathSearch.DIJKSTRA;
+        File hierarchySaveFile = null;
+        File hierarchyLoadFile = null;
+        int numberOfLandmarks = 0;
+        double radixResolution = 0;
+        boolean deltaStepping = false;
+        double delta = 0;
+        File updateFile = null;
+        File queryFile = null;
+        boolean snapPoints = false;
+        File matrixFile = null;
+        File facilityFile = null;
+        int numberOfPaths = 0;
+        double radius = -1;
+        File matrixOutFile = null;
+        boolean binaryMatrix = false;
+        File pathFile = null;
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        boolean storeWeights = true;
+        boolean compact = false;
+        boolean hilbertOrder = false;
+        boolean prune = true;
+        boolean printStats = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-astar")) {
+                searchMode = ShortestPathSearch.ASTAR;
+            }
+            else if (args[i].equals("-bidirectional")) {
+                searchMode = ShortestPathSearch.BIDIRECTIONAL;
+            }
+            else if (args[i].equals("-ch")) {
+                searchMode = ShortestPathSearch.CONTRACTION_HIERARCHY;
+            }
+            else if (args[i].equals("-chSave") && i + 1 < args.length) {
+                hierarchySaveFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-chLoad") && i + 1 < args.length) {
+                hierarchyLoadFile = new File(args[++i]);
+                searchMode = ShortestPathSearch.CONTRACTION_HIERARCHY;
+            }
+            else if (args[i].equals("-alt") && i + 1 < args.length) {
+                numberOfLandmarks = Integer.parseInt(args[++i]);
+                searchMode = ShortestPathSearch.ALT;
+            }
+            else if (args[i].equals("-radix") && i + 1 < args.length) {
+                radixResolution = Double.parseDouble(args[++i]);
+                if (!(radixResolution > 0)) {
+                    throw new IllegalArgumentException("-radix needs a positive resolution, was " + args[i]);
+                }
+            }
+            else if (args[i].equals("-deltaStepping")) {
+                deltaStepping = true;
+            }
+            else if (args[i].equals("-delta") && i + 1 < args.length) {
+                delta = Double.parseDouble(args[++i]);
+                if (!(delta > 0)) {
+                    throw new IllegalArgumentException("-delta needs a positive bucket width, was " + args[i]);
+                }
+            }
+            else if (args[i].equals("-updates") && i + 1 < args.length) {
+                updateFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-batch") && i + 1 < args.length) {
+                queryFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-snap")) {
+                snapPoints = true;
+            }
+            else if (args[i].equals("-matrix") && i + 1 < args.length) {
+                matrixFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-matrixOut") && i + 1 < args.length) {
+                matrixOutFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-binary")) {
+                binaryMatrix = true;
+            }
+            else if (args[i].equals("-facilities") && i + 1 < args.length) {
+                facilityFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-radius") && i + 1 < args.length) {
+                radius = Double.parseDouble(args[++i]);
+                if (!(radius >= 0)) {
+                    throw new IllegalArgumentException("-radius needs a distance of 0 or more, got " + args[i]);
                 }
             }
-            
-            // if null, then there are no more neighbors, so we can mark the vertex as visited and increase out counter
+            else if (args[i].equals("-kPaths") && i + 1 < args.length) {
+                numberOfPaths = Integer.parseInt(args[++i]);
+                if (numberOfPaths < 1) {
+                    throw new IllegalArgumentException("-kPaths needs at least 1 path, was " + args[i]);
+                }
+            }
+            else if (args[i].equals("-path") && i + 1 < args.length) {
+                pathFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-threads") && i + 1 < args.length) {
+                numberOfThreads = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-weightsOnTheFly")) {
+                storeWeights = false;
+            }
+            else if (args[i].equals("-compact")) {
+                compact = true;
+            }
+            else if (args[i].equals("-hilbert")) {
+                hilbertOrder = true;
+            }
+            else if (args[i].equals("-noPrune")) {
+                prune = false;
+            }
+            else if (args[i].equals("-stats")) {
+                printStats = true;
+            }
+            else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (hierarchySaveFile != null && searchMode != ShortestPathSearch.CONTRACTION_HIERARCHY) {
+            throw new IllegalArgumentException("-chSave needs -ch");
+        }
+        if (delta > 0 && !deltaStepping) {
+            throw new IllegalArgumentException("-delta sets the bucket width of -deltaStepping, it needs -deltaStepping");
+        }
+        if (deltaStepping && queryFile != null) {
+            throw new IllegalArgumentException("-deltaStepping answers a single source, it cannot be used with -batch");
+        }
+        if (deltaStepping && pathFile != null) {
+            throw new IllegalArgumentException("-deltaStepping only computes distances, it cannot be used with -path");
+        }
+        if (matrixFile != null && (queryFile != null || updateFile != null || deltaStepping || pathFile != null)) {
+            throw new IllegalArgumentException("-matrix cannot be used with -batch, -updates, -deltaStepping or -path");
+        }
+        if (radixResolution > 0 && (queryFile != null || matrixFile != null || updateFile != null || deltaStepping
+                || pathFile != null)) {
+            throw new IllegalArgumentException("-radix answers the single query, it cannot be used with -batch, -matrix, "
+                    + "-updates, -deltaStepping or -path");
+        }
+        if (facilityFile != null && (queryFile != null || matrixFile != null || updateFile != null || deltaStepping
+                || pathFile != null || radixResolution > 0)) {
+            throw new IllegalArgumentException("-facilities cannot be used with -batch, -matrix, -updates, -deltaStepping, "
+                    + "-path or -radix");
+        }
+        if (numberOfPaths > 0 && (queryFile != null || matrixFile != null || updateFile != null || deltaStepping
+                || radixResolution > 0 || facilityFile != null)) {
+            throw new IllegalArgumentException("-kPaths cannot be used with -batch, -matrix, -updates, -deltaStepping, "
+                    + "-radix or -facilities");
+        }
+        if (radius >= 0 && (queryFile != null || matrixFile != null || updateFile != null || deltaStepping
+                || pathFile != null || radixResolution > 0 || facilityFile != null || numberOfPaths > 0)) {
+            throw new IllegalArgumentException("-radius cannot be used with -batch, -matrix, -updates, -deltaStepping, "
+                    + "-path, -radix, -facilities or -kPaths");
+        }
+        if (compact && (searchMode != ShortestPathSearch.DIJKSTRA || hierarchyLoadFile != null || hierarchySaveFile != null
+                || radixResolution > 0 || deltaStepping || updateFile != null || queryFile != null || matrixFile != null
+                || facilityFile != null || numberOfPaths > 0 || radius >= 0 || pathFile != null || hilbertOrder
+                || !storeWeights)) {
+            throw new IllegalArgumentException("-compact only answers the plain vertex 1 to vertex N query, it can "
+                    + "only be used with -stats");
+        }
+        if (snapPoints && queryFile == null) {
+            throw new IllegalArgumentException("-snap reads points from the query file, it needs -batch");
+        }
+        if (binaryMatrix && matrixOutFile == null) {
+            throw new IllegalArgumentException("-binary needs -matrixOut, binary output is not written to the console");
+        }
+
+        // Compact mode: the graph is read in single precision, without the reverse index or the
+        // weight tables, and searched with float distances.  The printed distance is within the
+        // bound documented in CompactSearch of the one the double search prints.  There is no
+        // reachability pass, so an unreachable vertex N is only known once the search runs out,
+        // and is reported the same way
+        if (compact) {
+            long startTime = System.nanoTime();
+            CompactGraph compactGraph = CompactGraph.read(new File(args[0]));
+            CompactSearch compactSearch = new CompactSearch(compactGraph);
+            double distance = compactSearch.dijkstra(0, compactGraph.getNumberOfVertexes() - 1);
+            if (distance == Double.MAX_VALUE) {
+                System.out.println("Vertex " + compactGraph.getNumberOfVertexes() + " cannot be reached from vertex 1");
+            }
             else {
-                // All neighbors and their distances have been processed at this point, so we add the vertex
-                // to the visited list
-                vertexPriorityQueue.poll();
-                vertexesVisited++; 
+                System.out.println(distance);
             }
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + compactSearch.getExpandedCount() + ", "
+                        + (compactGraph.getMemoryFootprint() + compactSearch.getMemoryFootprint()) / (1 << 20)
+                        + " MB of arrays, error bound " + compactSearch.getErrorBound() + " for the path found ("
+                        + compactSearch.getHops() + " edges), "
+                        + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+            return;
         }
         
-        // While loop has finished, so we return the final distance variable of the Nth vertex
-        // in the vertexList.
-        System.out.println(vertexList[numberOfVertexes - 1].getDistanceFromStart());
-    }
-    
-    // Helper Methods
-    
-    // Helper Methods
-    
-    /**
-     * getDistanceBetween Method
-     * Method that calculates and returns the distance between two Vertex objects.  
-     * Formula is 3-D Pythagorean Formula:      for Locations Vertexs A and B
-     *          D = sqrt[ (destX - sourceX)^2 + (destY - sourceY)^2 + (destZ - sourceZ)^2 ] 
-     */
-     public static double getDistanceBetween(Vertex source, Vertex destination) {
-         // Performs calculations and returns values
-         return Math.sqrt( ( ( (destination.getCoordinates().getX() - source.getCoordinates().getX() ) * (destination.getCoordinates().getX() - source.getCoordinates().getX()) ) 
-                           + ( (destination.getCoordinates().getY() - source.getCoordinates().getY() ) * (destination.getCoordinates().getY() - source.getCoordinates().getY()) )
-                           + ( (destination.getCoordinates().getZ() - source.getCoordinates().getZ() ) * (destination.getCoordinates().getZ() - source.getCoordinates().getZ()) ) )
-                         );
-     }
-    
-    
-    // Additional Classes
-    
-    /**
-     * Vertex Class
-     * A Node-like abstraction of a vertex in the graph.  Contains an identifying number, and 
-     * a Location object representing the vertex's position on the x,y,z plane.  
-     * Fields:
-     *      number : identifying number
-     *      coordinates : Location of the vertex on the x,y,z plane
-     *      neighbors : the neighboring Vertexs able to receive messages
-     *      distanceFromStart : the shortest distance to vertex 1.  Initialized as 0 for vertex 1,
-     *                          and MAX for all other Vertexs
-     */  
-    public static class Vertex {
-        // Fields
-        public int number;
-        public Location coordinates;
-        public PriorityQueue<Vertex> neighbors;
-        public double distanceFromStart;
+        // Reads the input into a compressed-sparse-row graph (see Graph).  The vertex
+        // coordinates, the edge list and the edge weights are stored in flat primitive arrays,
+        // and the graph is left unchanged by the search below.
+        // Efficiency of O(n + m)
+        Graph graph = Graph.read(new File(args[0]), storeWeights);
+        int numberOfVertexes = graph.getNumberOfVertexes();
         
+        // Optionally renumbers the vertexes so that vertexes close in space are close in memory.
+        // Vertex 1 and vertex N are looked up by their input numbers either way
+        // Efficiency of O(n log(n) + m)
+        if (hilbertOrder) {
+            graph = graph.renumbered(HilbertCurve.order(graph));
+        }
+        int source = graph.getIndex(0);
+        int target = graph.getIndex(numberOfVertexes - 1);
         
-        // Constructor Method
-        public Vertex(int IDNumber, Location position) {
-            this.setNumber(IDNumber);
-            this.setCoordinates(position);
-            neighbors = new PriorityQueue<Vertex>(new DistanceComparator());
-            
-            // Checks if this is vertex 1
-            if (IDNumber == 1) {
-                this.setDistanceFromStart(0);
-            }
-            
-            // Otherwise
+        
+        // Reachability: when only vertex 1 to vertex N is asked for, finds the strongly connected
+        // components (see Reachability), reports right away if vertex N cannot be reached, and
+        // otherwise drops every vertex that is not on some path from vertex 1 to vertex N.  A
+        // hierarchy that is saved or loaded is always of the whole graph, so it is not pruned
+        // Efficiency of O(n + m)
+        if (queryFile == null && matrixFile == null && facilityFile == null && updateFile == null && radius < 0) {
+            long startTime = System.nanoTime();
+            Reachability reachability = Reachability.build(graph);
+            boolean[] relevant = reachability.relevantVertexes(source, target);
+            if (!relevant[target]) {
+                System.out.println("Vertex " + numberOfVertexes + " cannot be reached from vertex 1");
+                if (pathFile != null) {
+                    PrintWriter pathWriter = new PrintWriter(new BufferedWriter(new FileWriter(pathFile)));
+                    ShortestPathSearch.writePath(graph, source, target, null, 0, 0, pathWriter);
+                    pathWriter.close();
+                }
+                return;
+            }
+            int relevantCount = 0;
+            for (boolean isRelevant : relevant) {
+                relevantCount += isRelevant ? 1 : 0;
+            }
+            if (prune && hierarchySaveFile == null && hierarchyLoadFile == null && relevantCount < numberOfVertexes) {
+                graph = graph.restrictedTo(relevant);
+                source = graph.getIndex(0);
+                target = graph.getIndex(numberOfVertexes - 1);
+            }
+            if (printStats) {
+                System.out.println("Reachability: " + reachability.getNumberOfComponents() + " components, "
+                        + relevantCount + " of " + numberOfVertexes + " vertexes on a path from 1 to N, "
+                        + graph.getNumberOfVertexes() + " searched, " + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+        }
+        
+        
+        // Radius mode: every vertex within the radius of vertex 1, streamed out nearest first as
+        // the search settles it.  The search stops at the radius, so it never sees the rest of the
+        // graph, and it runs before any hierarchy or landmarks would be built for nothing
+        if (radius >= 0) {
+            long startTime = System.nanoTime();
+            RadiusSearch ball = new RadiusSearch(graph);
+            PrintWriter radiusWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            ball.within(source, radius, radiusWriter);
+            radiusWriter.flush();
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + ball.getExpandedCount() + " of " + numberOfVertexes
+                        + " within " + radius + ", " + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+            return;
+        }
+        
+        
+        // Hierarchy mode: builds (or loads) the contraction hierarchy before any query
+        ContractionHierarchy hierarchy = null;
+        if (searchMode == ShortestPathSearch.CONTRACTION_HIERARCHY) {
+            long startTime = System.nanoTime();
+            if (hierarchyLoadFile != null) {
+                hierarchy = ContractionHierarchy.load(hierarchyLoadFile, graph);
+            }
             else {
-                this.setDistanceFromStart(Double.MAX_VALUE);
+                hierarchy = ContractionHierarchy.build(graph);
+            }
+            if (hierarchySaveFile != null) {
+                hierarchy.save(hierarchySaveFile, graph);
+            }
+            if (printStats) {
+                System.out.println("Hierarchy ready in " + (System.nanoTime() - startTime) / 1000000 + " ms, "
+                        + hierarchy.getNumberOfShortcuts() + " shortcuts, core of " + hierarchy.getCoreSize() + " vertexes");
             }
         }
         
         
-        // Getters and Setters for the fields
+        // Matrix mode: the distance from every listed source to every listed target, through
+        // buckets on the hierarchy if there is one, or one Dijkstra search per source if not
+        if (matrixFile != null) {
+            int[][] vertexLists = DistanceMatrix.readVertexFile(matrixFile, graph);
+            long startTime = System.nanoTime();
+            DistanceMatrix matrixEngine = new DistanceMatrix(graph, hierarchy);
+            double[] matrix = matrixEngine.compute(vertexLists[0], vertexLists[1]);
+            long computeTime = System.nanoTime() - startTime;
+            if (binaryMatrix) {
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(matrixOutFile)));
+                try {
+                    DistanceMatrix.writeBinary(graph, vertexLists[0], vertexLists[1], matrix, output);
+                }
+                finally {
+                    output.close();
+                }
+            }
+            else {
+                PrintWriter matrixWriter = (matrixOutFile != null)
+                        ? new PrintWriter(new BufferedWriter(new FileWriter(matrixOutFile)))
+                        : new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+                DistanceMatrix.writeCsv(graph, vertexLists[0], vertexLists[1], matrix, matrixWriter);
+                if (matrixOutFile != null) {
+                    matrixWriter.close();
+                }
+                else {
+                    matrixWriter.flush();
+                }
+            }
+            if (printStats) {
+                System.out.println("Matrix of " + vertexLists[0].length + " x " + vertexLists[1].length + " in "
+                        + computeTime / 1000000 + " ms, vertexes expanded: " + matrixEngine.getExpandedCount()
+                        + ", bucket entries: " + matrixEngine.getNumberOfBucketEntries());
+            }
+            return;
+        }
         
-        // Number
-        public void setNumber(int newNumber) {
-            number = newNumber;
+        
+        // Dynamic mode: keeps every distance from vertex 1 while the update file adds and removes
+        // edges, repairing only the vertexes each change affects.  The distance to vertex N is
+        // printed first, then one line per query in the update file
+        if (updateFile != null) {
+            long startTime = System.nanoTime();
+            DynamicShortestPaths dynamic = new DynamicShortestPaths(graph, source);
+            System.out.println(ShortestPathSearch.formatDistance(dynamic.getDistance(target)));
+            long buildTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            long visited = dynamic.run(updateFile, System.out);
+            if (printStats) {
+                System.out.println("Initial search in " + buildTime / 1000000 + " ms, repairs visited " + visited
+                        + " vertexes in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+            return;
         }
-        public int getNumber() {
-            return number;
+        
+        
+        // Facility mode: one search from all facilities at once labels every vertex with its
+        // nearest facility and the distance to it
+        if (facilityFile != null) {
+            int[] facilities = NearestFacilities.readFacilityFile(facilityFile, graph);
+            long startTime = System.nanoTime();
+            NearestFacilities nearest = NearestFacilities.compute(graph, facilities);
+            long computeTime = System.nanoTime() - startTime;
+            PrintWriter facilityWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            nearest.write(graph, facilityWriter);
+            facilityWriter.flush();
+            if (printStats) {
+                int largest = 0;
+                for (int size : nearest.getCatchmentSizes()) {
+                    largest = Math.max(largest, size);
+                }
+                System.out.println("Vertexes expanded: " + nearest.getExpandedCount() + " from " + facilities.length
+                        + " facilities, largest catchment " + largest + " vertexes, " + computeTime / 1000000 + " ms");
+            }
+            return;
         }
         
         
-        // Coordinates
-        public void setCoordinates(Location newCoordinates) {
-            coordinates = newCoordinates;
+        // K paths mode: the k shortest loopless paths from vertex 1 to vertex N by Yen's algorithm,
+        // one length per line, shortest first, and with -path each path in the same order.  The
+        // reachability check above has already returned if vertex N cannot be reached, so there
+        // is always at least one path
+        if (numberOfPaths > 0) {
+            long startTime = System.nanoTime();
+            KShortestPaths kPaths = new KShortestPaths(graph);
+            int found = kPaths.find(source, target, numberOfPaths);
+            long searchTime = System.nanoTime() - startTime;
+            for (int i = 0; i < found; i++) {
+                System.out.println(kPaths.getLength(i));
+            }
+            if (pathFile != null) {
+                PrintWriter pathWriter = new PrintWriter(new BufferedWriter(new FileWriter(pathFile)));
+                try {
+                    for (int i = 0; i < found; i++) {
+                        int[] vertexes = kPaths.getPath(i);
+                        ShortestPathSearch.writePath(graph, source, target, vertexes, 0, vertexes.length, pathWriter);
+                    }
+                }
+                finally {
+                    pathWriter.close();
+                }
+            }
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + kPaths.getExpandedCount() + " in " + kPaths.getNumberOfSpurSearches()
+                        + " spur searches, " + searchTime / 1000000 + " ms");
+            }
+            return;
         }
-        public Location getCoordinates() {
-            return coordinates;
+        
+        
+        // Radix mode: Dijkstra over fixed-point distances, rounded down to multiples of the
+        // resolution, with a radix heap.  The length of the path it finds is printed, which is
+        // never shorter than the shortest path and longer by less than the resolution per edge
+        if (radixResolution > 0) {
+            long startTime = System.nanoTime();
+            QuantizedSearch quantized = new QuantizedSearch(graph, radixResolution);
+            System.out.println(quantized.dijkstra(source, target));
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + quantized.getExpandedCount() + ", shortest distance at least "
+                        + quantized.getLowerBound() + ", printed distance at most " + quantized.getErrorBound()
+                        + " too long (" + quantized.getHops() + " edges x " + radixResolution + "), "
+                        + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+            return;
         }
         
         
-        // Neighbors
-        public void addNeighbor(Vertex newNeghbor) {
-            neighbors.add(newNeghbor);
-        } 
-        public Vertex getNeighbor() {     // removes and returns first neighbor in queue
-            return neighbors.poll();
+        // Delta-stepping mode: every distance from vertex 1 is computed in parallel, and the
+        // distance to vertex N is printed as usual
+        if (deltaStepping) {
+            long startTime = System.nanoTime();
+            DeltaStepping engine = (delta > 0)
+                    ? new DeltaStepping(graph, delta, numberOfThreads)
+                    : new DeltaStepping(graph, numberOfThreads);
+            try {
+                double[] distances = engine.distancesFrom(source);
+                System.out.println(distances[target]);
+            }
+            finally {
+                engine.shutdown();
+            }
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + engine.getExpandedCount() + " in " + engine.getNumberOfPhases()
+                        + " phases, delta " + engine.getDelta() + ", " + (System.nanoTime() - startTime) / 1000000 + " ms");
+            }
+            return;
         }
         
         
-        // Distance from start
-        public void setDistanceFromStart(double newDistance) {
-            distanceFromStart = newDistance;
+        // ALT mode: picks the landmarks and computes their distance tables before any query
+        Landmarks landmarks = null;
+        if (searchMode == ShortestPathSearch.ALT) {
+            long startTime = System.nanoTime();
+            landmarks = Landmarks.build(graph, numberOfLandmarks);
+            if (printStats) {
+                System.out.println("Landmarks ready in " + (System.nanoTime() - startTime) / 1000000 + " ms, "
+                        + landmarks.getNumberOfLandmarks() + " landmarks");
+            }
         }
-        public double getDistanceFromStart() {
-            return distanceFromStart;
+        
+        
+        // Batch mode: the graph is loaded once, and every query in the query file is answered
+        // against it by a pool of worker threads
+        if (queryFile != null) {
+            BatchQueryEngine engine = new BatchQueryEngine(graph, hierarchy, landmarks, searchMode, numberOfThreads);
+            if (snapPoints) {
+                long startTime = System.nanoTime();
+                engine.setSnapIndex(new KdTree(graph));
+                if (printStats) {
+                    System.out.println("Spatial index ready in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+                }
+            }
+            engine.run(queryFile, System.out, pathFile);
+            if (printStats) {
+                System.out.println("Vertexes expanded: " + engine.getExpandedCount());
+            }
+            return;
+        }
+        
+        
+        // Implementation of Dijkstra's Algorithm (see ShortestPathSearch):
+        // We repeatedly remove the closest vertex from an indexed heap, starting with Vertex 1.
+        // Its distance is now final, so we process all of the vertex's neighbors, updating their
+        // distances from Vertex 1 as we go.  Once the Nth vertex is removed from the heap, its
+        // distance is the shortest path from Vertex 1, and it is printed to console.
+        // With -astar, the heap is ordered by distance plus straight-line distance to vertex N,
+        // which steers the search toward vertex N.  With -bidirectional, a second search runs
+        // backward from vertex N over the reversed edges, and the two meet in the middle.
+        // With -ch, the same two-sided search only climbs the contraction hierarchy.  With -alt,
+        // the A* lower bound comes from the distances to and from a few landmark vertexes.
+        // Each vertex is removed from the heap at most once, and each edge is relaxed at most
+        // once, for a time complexity of O(m log(n))
+        ShortestPathSearch search = new ShortestPathSearch(graph, hierarchy, landmarks);
+        double shortestDistance = search.query(searchMode, source, target);
+        
+        // Returns the final distance of the Nth vertex
+        System.out.println(shortestDistance);
+        
+        // Writes the path itself, walking back from the Nth vertex
+        // Efficiency of O(path length)
+        if (pathFile != null) {
+            PrintWriter pathWriter = new PrintWriter(new BufferedWriter(new FileWriter(pathFile)));
+            try {
+                search.writePath(pathWriter);
+            }
+            finally {
+                pathWriter.close();
+            }
+        }
+        
+        // Reports the work done, compared with plain Dijkstra on the same query
+        if (printStats) {
+            int expanded = search.getExpandedCount();
+            if (searchMode != ShortestPathSearch.DIJKSTRA) {
+                search.dijkstra(source, target);
+                System.out.println("Vertexes expanded: " + expanded + " (Dijkstra: " + search.getExpandedCount() + ")");
+            }
+            else {
+                System.out.println("Vertexes expanded: " + expanded);
+            }
         }
     }
     
+    // Helper Methods
+    
+    /**
+     * getDistanceBetween Method
+     * Method that calculates and returns the distance between two Locations.  
+     * Formula is 3-D Pythagorean Formula:      for Locations A and B
+     *          D = sqrt[ (destX - sourceX)^2 + (destY - sourceY)^2 + (destZ - sourceZ)^2 ] 
+     * Searches use Graph.getDistanceBetween(), the same formula over the packed coordinates
+     */
+     public static double getDistanceBetween(Location source, Location destination) {
+         // Performs calculations and returns values
+         return Math.sqrt( ( ( (destination.getX() - source.getX() ) * (destination.getX() - source.getX()) ) 
+                           + ( (destination.getY() - source.getY() ) * (destination.getY() - source.getY()) )
+                           + ( (destination.getZ() - source.getZ() ) * (destination.getZ() - source.getZ()) ) )
+                         );
+     }
+    
+    
+    // Additional Classes
     
     /**
      * Location Class
@@ -284,23 +664,4 @@ public class Dijkstra {
         }
     }
     
-    /**
-     * DistanceComparator class 
-     * Used for the ordering of the PriorityQueue used in Dijsktra's Implementation
-     * Compares the distance from vertex 1 in the form of a double
-     * @Override: compare() 
-     */
-    public static class DistanceComparator implements Comparator<Vertex> {
-        // @override
-        public int compare(Vertex A, Vertex B) {
-            if (A.getDistanceFromStart() < B.getDistanceFromStart() ) {
-                return -1;
-            }
-            if (A.getDistanceFromStart() > B.getDistanceFromStart()) {
-                return 1;
-            }
-            return 0;
-        }
-    }
-    
 }
\ No newline at end of file
@@ -0,0 +1,413 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * DistanceMatrix Class
+ *
+ * Computes the shortest distance from every vertex of a source list to every vertex of a target
+ * list (a many-to-many distance matrix) on one Graph.  Answering the S x T pairs one query at a
+ * time repeats most of the work, since all queries from one source explore the same region, so
+ * with a ContractionHierarchy the matrix is computed with buckets instead:
+ *      1. One backward search per target, over the upward in-edges (the backward half of a
+ *         hierarchy query).  Every vertex v it settles gets an entry (target, d(v, target)) in
+ *         v's bucket.
+ *      2. One forward search per source, over the upward out-edges.  At every vertex v it settles,
+ *         each entry in v's bucket is a candidate path source -> v -> target, and the shortest
+ *         candidate for each target is its distance, exactly as in a single hierarchy query.
+ * That is S + T small searches instead of S x T bidirectional ones.  Without a hierarchy, each
+ * row is one plain Dijkstra search from the source that stops once every target is settled.
+ *
+ * Every entry also records the hierarchy edge it was reached by and the entry of the next vertex
+ * toward its target, so the winning path of each pair can be walked and its shortcuts expanded
+ * like a single query's.  Its length is then added up over the original edges in path order,
+ * which makes each entry of the matrix the same number a single query prints.
+ * Buckets take O(sum of the backward search spaces) memory: small on spatial inputs, but up to
+ * T times the core on inputs that leave a large core.
+ *
+ * Vertex File Format:
+ *      An integer S followed by S vertex numbers (the sources), then an integer T followed by
+ *      T vertex numbers (the targets), separated by any whitespace, 1 <= vertex <= N.
+ * Output Formats (see writeCsv() and writeBinary()):
+ *      CSV : a header line of target numbers, then one line per source
+ *      binary : S, T, the source and target numbers, then the S x T distances row by row
+ * Unreachable pairs hold Double.MAX_VALUE, as the single query program prints.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ *
+ * Fields:
+ *      graph : the graph searched
+ *      hierarchy : the hierarchy the bucket searches climb, or null for plain Dijkstra rows
+ *      distances, distance, heap : search state, reset in O(1) by moving to a new generation (see
+ *                                  StampedDistances), distance being the array of distances
+ *      parentEdge : the hierarchy edge each vertex was reached by in the current search, -1 at its start
+ *      entryCount : number of bucket entries
+ *      entryVertex, entryTarget, entryDistance : vertex, target column and distance to the target
+ *                                                of each entry
+ *      entryEdge, entryNext : hierarchy edge from the entry's vertex toward the target, and the
+ *                             entry of the vertex at its other end, -1 at the target itself
+ *      entryOf : the entry of each vertex settled by the current backward search
+ *      bucketOffsets, bucketEntries : the entries of each vertex, as CSR lists (see Graph)
+ *      unpacker : expands the winning paths into original edges, null without a hierarchy
+ *      expandedCount : vertexes settled by all searches of the last compute()
+ */
+public class DistanceMatrix {
+    // Fields
+    private final Graph graph;
+    private final ContractionHierarchy hierarchy;
+    private final StampedDistances distances;
+    private final double[] distance;
+    private final int[] parentEdge;
+    private final IndexedHeap heap;
+
+    private int entryCount;
+    private int[] entryVertex;
+    private int[] entryTarget;
+    private double[] entryDistance;
+    private int[] entryEdge;
+    private int[] entryNext;
+    private int[] entryOf;
+    private int[] bucketOffsets;
+    private int[] bucketEntries;
+    private final ContractionHierarchy.PathUnpacker unpacker;
+    private long expandedCount;
+
+
+    // Constructor Method
+    // The hierarchy may be null, in which case every row is a plain Dijkstra search
+    public DistanceMatrix(Graph matrixGraph, ContractionHierarchy graphHierarchy) {
+        graph = matrixGraph;
+        hierarchy = graphHierarchy;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        distances = new StampedDistances(numberOfVertexes);
+        distance = distances.getValues();
+        parentEdge = new int[numberOfVertexes];
+        heap = new IndexedHeap(distance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+        unpacker = (hierarchy != null) ? new ContractionHierarchy.PathUnpacker(hierarchy) : null;
+    }
+
+
+    /**
+     * compute Method
+     * Returns the distance from every source to every target, row by row: the distance from
+     * sources[i] to targets[j] is at i * T + j
+     * Efficiency of O((S + T) times the search space of one hierarchy search, plus S x T path
+     * lengths), or O(S m log(n)) without a hierarchy
+     */
+    public double[] compute(int[] sources, int[] targets) {
+        double[] matrix = new double[sources.length * targets.length];
+        Arrays.fill(matrix, Double.MAX_VALUE);
+        expandedCount = 0;
+        if (hierarchy == null) {
+            computeByDijkstra(sources, targets, matrix);
+        }
+        else {
+            fillBuckets(targets);
+            computeByBuckets(sources, targets.length, matrix);
+        }
+        return matrix;
+    }
+
+
+    // Getters for the results of the last compute()
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+    public int getNumberOfBucketEntries() {
+        return entryCount;
+    }
+
+
+    /**
+     * readVertexFile Method
+     * Reads a vertex file (see the format above) and returns the sources in row 0 and the targets
+     * in row 1, as vertex indexes of the graph
+     */
+    public static int[][] readVertexFile(File vertexFile, Graph graph) throws FileNotFoundException {
+        Scanner vertexScanner = new Scanner(vertexFile);
+        try {
+            int[] sources = readVertexList(vertexScanner, graph, "source");
+            int[] targets = readVertexList(vertexScanner, graph, "target");
+            return new int[][] { sources, targets };
+        }
+        finally {
+            vertexScanner.close();
+        }
+    }
+
+
+    /**
+     * writeCsv Method
+     * Writes a matrix as comma separated text.  The first line is an empty cell followed by the
+     * target numbers, and each following line is a source number followed by its distances.
+     * Vertexes are written by their input numbers, 1 to N.
+     */
+    public static void writeCsv(Graph graph, int[] sources, int[] targets, double[] matrix, PrintWriter writer) {
+        StringBuilder line = new StringBuilder();
+        for (int target : targets) {
+            line.append(',').append(graph.getInputIndex(target) + 1);
+        }
+        writer.println(line);
+        for (int i = 0; i < sources.length; i++) {
+            line.setLength(0);
+            line.append(graph.getInputIndex(sources[i]) + 1);
+            for (int j = 0; j < targets.length; j++) {
+                line.append(',').append(matrix[i * targets.length + j]);
+            }
+            writer.println(line);
+        }
+    }
+
+    /**
+     * writeBinary Method
+     * Writes a matrix as big-endian binary (as DataOutputStream writes it): S and T as ints,
+     * the S source numbers and T target numbers as ints (1 to N), then the S x T distances as
+     * doubles, row by row
+     */
+    public static void writeBinary(Graph graph, int[] sources, int[] targets, double[] matrix, DataOutputStream output)
+            throws IOException {
+        output.writeInt(sources.length);
+        output.writeInt(targets.length);
+        for (int source : sources) {
+            output.writeInt(graph.getInputIndex(source) + 1);
+        }
+        for (int target : targets) {
+            output.writeInt(graph.getInputIndex(target) + 1);
+        }
+        for (double value : matrix) {
+            output.writeDouble(value);
+        }
+    }
+
+
+    // Helper Methods
+
+    /**
+     * fillBuckets Method
+     * Runs the backward search of every target over the upward in-edges, giving each settled
+     * vertex a bucket entry, then groups the entries by vertex into CSR buckets
+     * Efficiency of O(T times the search space of one backward search)
+     */
+    private void fillBuckets(int[] targets) {
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        int[] downOffsets = hierarchy.getDownOffsets();
+        int[] downSources = hierarchy.getDownSources();
+        double[] downWeights = hierarchy.getDownWeights();
+        int[] downEdges = hierarchy.getDownEdges();
+
+        entryCount = 0;
+        if (entryVertex == null) {
+            int capacity = Math.max(16, 4 * targets.length);
+            entryVertex = new int[capacity];
+            entryTarget = new int[capacity];
+            entryDistance = new double[capacity];
+            entryEdge = new int[capacity];
+            entryNext = new int[capacity];
+            entryOf = new int[numberOfVertexes];
+        }
+
+        for (int j = 0; j < targets.length; j++) {
+            startSearch();
+            distances.set(targets[j], 0);
+            parentEdge[targets[j]] = -1;
+            heap.add(targets[j]);
+            while (!heap.isEmpty()) {
+                int currentIndex = heap.poll();
+                expandedCount++;
+                int edge = parentEdge[currentIndex];
+                entryOf[currentIndex] = addEntry(currentIndex, j, distance[currentIndex], edge,
+                        (edge >= 0) ? entryOf[hierarchy.getEdgeTo(edge)] : -1);
+
+                for (int down = downOffsets[currentIndex]; down < downOffsets[currentIndex + 1]; down++) {
+                    int neighborIndex = downSources[down];
+                    double newDistance = distance[currentIndex] + downWeights[down];
+                    if (newDistance < distances.get(neighborIndex)) {
+                        distances.set(neighborIndex, newDistance);
+                        parentEdge[neighborIndex] = downEdges[down];
+                        heap.addOrDecreaseKey(neighborIndex);
+                    }
+                }
+            }
+        }
+
+        // Counting sort of the entries by vertex
+        bucketOffsets = new int[numberOfVertexes + 1];
+        for (int e = 0; e < entryCount; e++) {
+            bucketOffsets[entryVertex[e] + 1]++;
+        }
+        for (int v = 0; v < numberOfVertexes; v++) {
+            bucketOffsets[v + 1] += bucketOffsets[v];
+        }
+        bucketEntries = new int[entryCount];
+        int[] nextSlot = Arrays.copyOf(bucketOffsets, numberOfVertexes);
+        for (int e = 0; e < entryCount; e++) {
+            bucketEntries[nextSlot[entryVertex[e]]++] = e;
+        }
+    }
+
+    /**
+     * computeByBuckets Method
+     * Runs the forward search of every source over the upward out-edges, scanning the bucket of
+     * each vertex it settles for the shortest candidate to each target, then fills the row with
+     * the exact length of each winning path
+     * Efficiency of O(S times (the search space of one forward search plus the buckets it
+     * scans) plus the S x T path lengths)
+     */
+    private void computeByBuckets(int[] sources, int numberOfTargets, double[] matrix) {
+        int[] upOffsets = hierarchy.getUpOffsets();
+        int[] upTargets = hierarchy.getUpTargets();
+        double[] upWeights = hierarchy.getUpWeights();
+        int[] upEdges = hierarchy.getUpEdges();
+
+        // Shortest candidate to each target seen by the current forward search, and its entry
+        double[] bestDistance = new double[numberOfTargets];
+        int[] bestEntry = new int[numberOfTargets];
+
+        for (int i = 0; i < sources.length; i++) {
+            Arrays.fill(bestDistance, Double.MAX_VALUE);
+            Arrays.fill(bestEntry, -1);
+
+            startSearch();
+            distances.set(sources[i], 0);
+            parentEdge[sources[i]] = -1;
+            heap.add(sources[i]);
+            while (!heap.isEmpty()) {
+                int currentIndex = heap.poll();
+                expandedCount++;
+                for (int k = bucketOffsets[currentIndex]; k < bucketOffsets[currentIndex + 1]; k++) {
+                    int e = bucketEntries[k];
+                    double candidate = distance[currentIndex] + entryDistance[e];
+                    if (candidate < bestDistance[entryTarget[e]]) {
+                        bestDistance[entryTarget[e]] = candidate;
+                        bestEntry[entryTarget[e]] = e;
+                    }
+                }
+
+                for (int edge = upOffsets[currentIndex]; edge < upOffsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = upTargets[edge];
+                    double newDistance = distance[currentIndex] + upWeights[edge];
+                    if (newDistance < distances.get(neighborIndex)) {
+                        distances.set(neighborIndex, newDistance);
+                        parentEdge[neighborIndex] = upEdges[edge];
+                        heap.addOrDecreaseKey(neighborIndex);
+                    }
+                }
+            }
+
+            for (int j = 0; j < numberOfTargets; j++) {
+                if (bestEntry[j] >= 0) {
+                    matrix[i * numberOfTargets + j] = unpackedLength(bestEntry[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * computeByDijkstra Method
+     * Fills each row with one plain Dijkstra search from its source, stopped once every target
+     * has been settled (or the search runs out of vertexes)
+     * Efficiency of O(S m log(n))
+     */
+    private void computeByDijkstra(int[] sources, int[] targets, double[] matrix) {
+        int[] offsets = graph.getOffsets();
+        int[] neighbors = graph.getTargets();
+
+        // Marks the targets, counting each vertex once even if it is listed twice
+        boolean[] isTarget = new boolean[graph.getNumberOfVertexes()];
+        int distinctTargets = 0;
+        for (int target : targets) {
+            if (!isTarget[target]) {
+                isTarget[target] = true;
+                distinctTargets++;
+            }
+        }
+
+        for (int i = 0; i < sources.length; i++) {
+            startSearch();
+            distances.set(sources[i], 0);
+            heap.add(sources[i]);
+            int targetsLeft = distinctTargets;
+            while (!heap.isEmpty() && targetsLeft > 0) {
+                int currentIndex = heap.poll();
+                expandedCount++;
+                if (isTarget[currentIndex]) {
+                    targetsLeft--;
+                }
+                for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = neighbors[edge];
+                    double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+                    if (newDistance < distances.get(neighborIndex)) {
+                        distances.set(neighborIndex, newDistance);
+                        heap.addOrDecreaseKey(neighborIndex);
+                    }
+                }
+            }
+            for (int j = 0; j < targets.length; j++) {
+                matrix[i * targets.length + j] = distances.get(targets[j]);
+            }
+        }
+    }
+
+    /**
+     * unpackedLength Method
+     * Expands the path through the meeting vertex of entry e, from the current forward search's
+     * source up to the meeting vertex and along the entry chain down to the target, and adds up
+     * its original edges in path order (see ContractionHierarchy.PathUnpacker)
+     * Efficiency of O(path length)
+     */
+    private double unpackedLength(int e) {
+        unpacker.clear();
+        for (int entry = e; entryEdge[entry] >= 0; entry = entryNext[entry]) {
+            unpacker.addBackwardEdge(entryEdge[entry]);
+        }
+        unpacker.addForwardHalf(parentEdge, entryVertex[e]);
+        return unpacker.expand(graph, -1, false);
+    }
+
+    // Adds a bucket entry, growing the entry arrays if needed, and returns its index
+    private int addEntry(int vertex, int targetColumn, double targetDistance, int edge, int next) {
+        if (entryCount == entryVertex.length) {
+            int capacity = 2 * entryCount;
+            entryVertex = Arrays.copyOf(entryVertex, capacity);
+            entryTarget = Arrays.copyOf(entryTarget, capacity);
+            entryDistance = Arrays.copyOf(entryDistance, capacity);
+            entryEdge = Arrays.copyOf(entryEdge, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+        }
+        entryVertex[entryCount] = vertex;
+        entryTarget[entryCount] = targetColumn;
+        entryDistance[entryCount] = targetDistance;
+        entryEdge[entryCount] = edge;
+        entryNext[entryCount] = next;
+        return entryCount++;
+    }
+
+    // Reads a count followed by that many vertex numbers, returning them as vertex indexes
+    private static int[] readVertexList(Scanner vertexScanner, Graph graph, String kind) {
+        if (!vertexScanner.hasNextInt()) {
+            throw new IllegalArgumentException("Vertex file is missing the number of " + kind + "s");
+        }
+        int count = vertexScanner.nextInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of " + kind + "s must not be negative, was " + count);
+        }
+        int[] vertexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (!vertexScanner.hasNextInt()) {
+                throw new IllegalArgumentException("Vertex file lists " + i + " of " + count + " " + kind + "s");
+            }
+            int vertexNumber = vertexScanner.nextInt();
+            if (vertexNumber < 1 || vertexNumber > graph.getNumberOfVertexes()) {
+                throw new IllegalArgumentException("Vertex file names " + kind + " " + vertexNumber
+                        + ", expected 1 to " + graph.getNumberOfVertexes());
+            }
+            vertexes[i] = graph.getIndex(vertexNumber - 1);
+        }
+        return vertexes;
+    }
+
+    // Moves to a new generation, discarding every distance of the previous search (see
+    // StampedDistances), and empties the heap
+    private void startSearch() {
+        distances.nextGeneration();
+        heap.clear();
+    }
+}
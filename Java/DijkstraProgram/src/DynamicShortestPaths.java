@@ -0,0 +1,398 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * DynamicShortestPaths Class
+ *
+ * Shortest distances from one source vertex to every vertex, kept up to date while edges are added
+ * to and removed from the graph, in the style of Ramalingam and Reps.  Instead of searching the
+ * whole graph again after every change, only the vertexes whose distance can actually change are
+ * visited, so a repair costs about as much as the part of the shortest path tree it changes.
+ *
+ * The object keeps the distance of every vertex and the shortest path tree (each vertex's parent,
+ * and its children as a linked list), over its own copy of the edges, which can grow and shrink.
+ * Changes are collected with addEdge() and removeEdge(), and applied together by repair():
+ *      removed edges : an edge only matters if it is the tree edge into its target (and no copy of
+ *                      it is left).  Then the target's whole subtree loses its path, and those
+ *                      vertexes are the affected set.  Every other vertex keeps a shortest path
+ *                      that avoids the removed edges, so its distance cannot grow.
+ *                      Each affected vertex restarts from the best edge into it from an unaffected
+ *                      vertex (or MAX if there is none).
+ *      added edges : an added edge u -> v is a shortcut if u's distance plus the edge is less
+ *                    than v's distance, and then lowers v.  One removed again before the
+ *                    repair is skipped, unless another copy of it is left.
+ * Every affected or lowered vertex goes into a heap, and a Dijkstra search from them passes the
+ * changes on, visiting only vertexes whose distance changes.  Distances come out the same as a
+ * new Dijkstra search from the source, to the last digit.
+ * For complexity arguments, n = number of vertexes, m = edges, and k = vertexes whose distance or
+ * parent changes in a repair, with their edges.  Building takes O(m log(n)) time, a repair
+ * O(k log(n)) time.
+ *
+ * Update File Format (see run()):
+ *      Any number of lines, each one of
+ *          add u v      adds an edge from vertex u to vertex v
+ *          remove u v   removes one edge from vertex u to vertex v
+ *          query v      applies the changes so far, and prints the distance to vertex v, or
+ *                       "unreachable" if there is no path to it
+ *      with 1 <= u, v <= N.  Changes between two queries are repaired together.
+ *
+ * Fields:
+ *      graph : the graph the object was built from, for coordinates (edge weights)
+ *      source : vertex the distances are measured from
+ *      outEdges, outSize : targets of each vertex's current out-edges
+ *      inEdges, inSize : sources of each vertex's current in-edges
+ *      distance : shortest distance from the source, MAX if unreachable
+ *      parent : parent in the shortest path tree, -1 for the source and unreachable vertexes
+ *      firstChild, nextSibling, previousSibling : children of each vertex in the tree, as a
+ *                                                 doubly linked list
+ *      heap : indexed heap over distance, for passing changes on
+ *      affectedStamp : repair in which each vertex was last found affected
+ *      affected : the vertexes found affected in the current repair
+ *      repairNumber : number of the current repair
+ *      pendingRoots : targets of removed tree edges, whose subtrees are affected
+ *      pendingFrom, pendingTo : added edges not yet repaired
+ *      visitedCount : number of vertexes taken from the heap in the last repair
+ */
+public class DynamicShortestPaths {
+    // Fields
+    private final Graph graph;
+    private final int source;
+    private final int[][] outEdges;
+    private final int[] outSize;
+    private final int[][] inEdges;
+    private final int[] inSize;
+    private final double[] distance;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] previousSibling;
+    private final IndexedHeap heap;
+    private final int[] affectedStamp;
+    private int[] affected;
+    private int repairNumber;
+    private int[] pendingRoots;
+    private int pendingRootCount;
+    private int[] pendingFrom;
+    private int[] pendingTo;
+    private int pendingEdgeCount;
+    private int visitedCount;
+
+
+    // Constructor Method
+    // Copies the graph's edges, and computes every distance from sourceVertex
+    public DynamicShortestPaths(Graph startingGraph, int sourceVertex) {
+        graph = startingGraph;
+        source = sourceVertex;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+
+        // Copies the CSR lists into per-vertex lists that can change size
+        // Efficiency of O(n + m)
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] reverseOffsets = graph.getReverseOffsets();
+        int[] reverseSources = graph.getReverseSources();
+        outEdges = new int[numberOfVertexes][];
+        outSize = new int[numberOfVertexes];
+        inEdges = new int[numberOfVertexes][];
+        inSize = new int[numberOfVertexes];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            outEdges[v] = Arrays.copyOfRange(targets, offsets[v], offsets[v + 1]);
+            outSize[v] = outEdges[v].length;
+            inEdges[v] = Arrays.copyOfRange(reverseSources, reverseOffsets[v], reverseOffsets[v + 1]);
+            inSize[v] = inEdges[v].length;
+        }
+
+        distance = new double[numberOfVertexes];
+        parent = new int[numberOfVertexes];
+        firstChild = new int[numberOfVertexes];
+        nextSibling = new int[numberOfVertexes];
+        previousSibling = new int[numberOfVertexes];
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        Arrays.fill(firstChild, -1);
+        heap = new IndexedHeap(distance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+        affectedStamp = new int[numberOfVertexes];
+        affected = new int[16];
+        repairNumber = 0;
+        pendingRoots = new int[16];
+        pendingFrom = new int[16];
+        pendingTo = new int[16];
+
+        // The first search is a repair that starts from the source alone
+        distance[source] = 0;
+        heap.add(source);
+        passChangesOn();
+    }
+
+
+    /**
+     * addEdge Method
+     * Adds the edge from -> to (vertex indexes).  Distances are not updated until repair().
+     */
+    public void addEdge(int from, int to) {
+        outSize[from] = addToList(outEdges, outSize[from], from, to);
+        inSize[to] = addToList(inEdges, inSize[to], to, from);
+        if (pendingEdgeCount == pendingFrom.length) {
+            pendingFrom = Arrays.copyOf(pendingFrom, 2 * pendingEdgeCount);
+            pendingTo = Arrays.copyOf(pendingTo, 2 * pendingEdgeCount);
+        }
+        pendingFrom[pendingEdgeCount] = from;
+        pendingTo[pendingEdgeCount] = to;
+        pendingEdgeCount++;
+    }
+
+    /**
+     * removeEdge Method
+     * Removes one copy of the edge from -> to, and returns false if there was none.  Distances
+     * are not updated until repair().
+     */
+    public boolean removeEdge(int from, int to) {
+        int outSlot = findInList(outEdges[from], outSize[from], to);
+        if (outSlot < 0) {
+            return false;
+        }
+        outEdges[from][outSlot] = outEdges[from][--outSize[from]];
+        int inSlot = findInList(inEdges[to], inSize[to], from);
+        inEdges[to][inSlot] = inEdges[to][--inSize[to]];
+
+        // Only the tree edge into to matters, and only if no copy of it is left
+        if (parent[to] == from && findInList(outEdges[from], outSize[from], to) < 0) {
+            if (pendingRootCount == pendingRoots.length) {
+                pendingRoots = Arrays.copyOf(pendingRoots, 2 * pendingRootCount);
+            }
+            pendingRoots[pendingRootCount++] = to;
+        }
+        return true;
+    }
+
+
+    /**
+     * repair Method
+     * Applies every change made since the last repair to the distances and the tree, and returns
+     * the number of vertexes visited.
+     * Completed in O(k log(n)) time
+     */
+    public int repair() {
+        repairNumber++;
+        int affectedCount = collectAffected();
+
+        // Restarts each affected vertex from its best edge out of the unaffected part
+        for (int i = 0; i < affectedCount; i++) {
+            int vertex = affected[i];
+            for (int j = 0; j < inSize[vertex]; j++) {
+                int neighbor = inEdges[vertex][j];
+                if (affectedStamp[neighbor] != repairNumber && distance[neighbor] != Double.MAX_VALUE) {
+                    lowerDistance(neighbor, vertex);
+                }
+            }
+        }
+
+        // Lowers the target of each added edge that is a shortcut, skipping one that was removed
+        // again since it was added (and has no other copy left)
+        for (int i = 0; i < pendingEdgeCount; i++) {
+            if (distance[pendingFrom[i]] != Double.MAX_VALUE
+                    && findInList(outEdges[pendingFrom[i]], outSize[pendingFrom[i]], pendingTo[i]) >= 0) {
+                lowerDistance(pendingFrom[i], pendingTo[i]);
+            }
+        }
+        pendingEdgeCount = 0;
+
+        passChangesOn();
+        return visitedCount;
+    }
+
+
+    /**
+     * run Method
+     * Reads the update file, applying its changes and printing one distance per query line to
+     * output, in order.  Vertex numbers are translated with the graph's input numbering (see
+     * Graph.getIndex()).  Returns the total number of vertexes visited by the repairs.
+     */
+    public long run(File updateFile, PrintStream output) throws FileNotFoundException {
+        Scanner updateScanner = new Scanner(updateFile);
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output)));
+        long totalVisited = 0;
+        int lineNumber = 0;
+        try {
+            while (updateScanner.hasNext()) {
+                lineNumber++;
+                String command = updateScanner.next();
+                if (command.equals("add")) {
+                    addEdge(readVertex(updateScanner, lineNumber), readVertex(updateScanner, lineNumber));
+                }
+                else if (command.equals("remove")) {
+                    int from = readVertex(updateScanner, lineNumber);
+                    int to = readVertex(updateScanner, lineNumber);
+                    if (!removeEdge(from, to)) {
+                        throw new IllegalArgumentException("Update " + lineNumber + " removes an edge that is not in the graph");
+                    }
+                }
+                else if (command.equals("query")) {
+                    int vertex = readVertex(updateScanner, lineNumber);
+                    totalVisited += repair();
+                    writer.println(ShortestPathSearch.formatDistance(distance[vertex]));
+                }
+                else {
+                    throw new IllegalArgumentException("Update " + lineNumber + " has unknown command " + command);
+                }
+            }
+        }
+        finally {
+            writer.flush();
+            updateScanner.close();
+        }
+        return totalVisited;
+    }
+
+
+    // Getters for the current distances and tree
+    public double getDistance(int vertex) {
+        return distance[vertex];
+    }
+    public int getParent(int vertex) {
+        return parent[vertex];
+    }
+    public int getSource() {
+        return source;
+    }
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * collectAffected Method
+     * Gathers the subtrees under every pending root into the affected list, detaches them from
+     * the tree, and resets their distances to MAX.  Returns the number of affected vertexes.
+     * Efficiency of O(number of affected vertexes)
+     */
+    private int collectAffected() {
+        int affectedCount = 0;
+        for (int r = 0; r < pendingRootCount; r++) {
+            int root = pendingRoots[r];
+            // Skips a root that is already in another root's subtree, or whose tree edge was
+            // added back since it was removed
+            if (affectedStamp[root] == repairNumber || parent[root] < 0
+                    || findInList(outEdges[parent[root]], outSize[parent[root]], root) >= 0) {
+                continue;
+            }
+            setParent(root, -1);
+
+            // Walks the subtree breadth first, using the affected list as the queue
+            int start = affectedCount;
+            affectedCount = addAffected(affectedCount, root);
+            for (int i = start; i < affectedCount; i++) {
+                for (int child = firstChild[affected[i]]; child >= 0; child = nextSibling[child]) {
+                    affectedCount = addAffected(affectedCount, child);
+                }
+            }
+        }
+        pendingRootCount = 0;
+
+        // Detaches the affected vertexes and forgets their distances
+        for (int i = 0; i < affectedCount; i++) {
+            int vertex = affected[i];
+            setParent(vertex, -1);
+            firstChild[vertex] = -1;
+            distance[vertex] = Double.MAX_VALUE;
+        }
+        return affectedCount;
+    }
+
+    // Marks a vertex affected and adds it to the affected list, and returns the new count
+    private int addAffected(int affectedCount, int vertex) {
+        affectedStamp[vertex] = repairNumber;
+        if (affectedCount == affected.length) {
+            affected = Arrays.copyOf(affected, 2 * affectedCount);
+        }
+        affected[affectedCount] = vertex;
+        return affectedCount + 1;
+    }
+
+    /**
+     * passChangesOn Method
+     * Dijkstra's loop over the vertexes in the heap: each vertex removed has its final distance,
+     * and lowers its out-neighbors where it gives them a shorter path
+     * Efficiency of O(k log(n))
+     */
+    private void passChangesOn() {
+        visitedCount = 0;
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            visitedCount++;
+            for (int i = 0; i < outSize[currentIndex]; i++) {
+                lowerDistance(currentIndex, outEdges[currentIndex][i]);
+            }
+        }
+    }
+
+    // Gives to the path through from, if that is shorter than its current distance
+    private void lowerDistance(int from, int to) {
+        double newDistance = distance[from] + graph.getDistanceBetween(from, to);
+        if (newDistance < distance[to]) {
+            distance[to] = newDistance;
+            setParent(to, from);
+            heap.addOrDecreaseKey(to);
+        }
+    }
+
+    // Moves vertex under a new parent in the tree (-1 for none), unlinking it from the old one
+    private void setParent(int vertex, int newParent) {
+        int oldParent = parent[vertex];
+        if (oldParent >= 0) {
+            if (previousSibling[vertex] >= 0) {
+                nextSibling[previousSibling[vertex]] = nextSibling[vertex];
+            }
+            else {
+                firstChild[oldParent] = nextSibling[vertex];
+            }
+            if (nextSibling[vertex] >= 0) {
+                previousSibling[nextSibling[vertex]] = previousSibling[vertex];
+            }
+        }
+        parent[vertex] = newParent;
+        previousSibling[vertex] = -1;
+        nextSibling[vertex] = -1;
+        if (newParent >= 0) {
+            nextSibling[vertex] = firstChild[newParent];
+            if (firstChild[newParent] >= 0) {
+                previousSibling[firstChild[newParent]] = vertex;
+            }
+            firstChild[newParent] = vertex;
+        }
+    }
+
+    // Reads one vertex number from the update file and returns its index
+    private int readVertex(Scanner updateScanner, int lineNumber) {
+        if (!updateScanner.hasNextInt()) {
+            throw new IllegalArgumentException("Update " + lineNumber + " is missing a vertex number");
+        }
+        int vertexNumber = updateScanner.nextInt();
+        if (vertexNumber < 1 || vertexNumber > graph.getNumberOfVertexes()) {
+            throw new IllegalArgumentException("Update " + lineNumber + " names vertex " + vertexNumber
+                    + ", expected 1 to " + graph.getNumberOfVertexes());
+        }
+        return graph.getIndex(vertexNumber - 1);
+    }
+
+    // Appends value to lists[owner], growing it if needed, and returns the new size
+    private static int addToList(int[][] lists, int size, int owner, int value) {
+        if (size == lists[owner].length) {
+            lists[owner] = Arrays.copyOf(lists[owner], Math.max(4, 2 * size));
+        }
+        lists[owner][size] = value;
+        return size + 1;
+    }
+
+    // Slot of value in list[0, size), or -1
+    private static int findInList(int[] list, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
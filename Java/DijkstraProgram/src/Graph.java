@@ -0,0 +1,368 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Graph Class
+ *
+ * Compressed-sparse-row (CSR) representation of the directed graph read by Dijkstra.  Vertexes
+ * are referred to by index (vertex number - 1).  The out-edges of vertex v are the entries
+ * targets[offsets[v]] up to (but not including) targets[offsets[v + 1]], so a search scans each
+ * vertex's edges sequentially in one int array instead of chasing per-vertex neighbor objects.
+ * The in-edges are stored the same way in a reverse index (reverseOffsets, reverseSources), built
+ * alongside the forward arrays, so a search can also run backward from a target.
+ * Coordinates are packed as xyz triples in a single double array, vertex v at 3v, 3v+1, 3v+2.
+ * Nothing in the graph is modified by a search, so one loaded graph can serve any number of
+ * searches.
+ * A graph can be renumbered (see renumbered()) so that vertexes close together in space are also
+ * close together in the arrays.  A renumbered graph remembers each vertex's index in the input,
+ * and callers translate with getIndex() on the way in and getInputIndex() on the way out, so
+ * vertex numbers seen by the user never change.  A graph can also be cut down to the vertexes a
+ * search can use (see restrictedTo()), which translates the same way.
+ * Edge weights (the Euclidean length of each edge) are computed once, when the graph is built,
+ * into double arrays aligned with targets and reverseSources, so a relaxation reads its weight
+ * from the next slot of an array it is already scanning instead of loading both endpoints'
+ * coordinates and taking a square root.  The tables cost 16 bytes per edge, so a graph can be
+ * built without them (see read()), in which case getEdgeWeight() computes each weight on the fly.
+ * Both give the same value to the last bit.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ * Reading the input takes O(n+m) time and the graph takes O(n+m) space.
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      numberOfEdges : m
+ *      coordinates : packed xyz triples, length 3n
+ *      offsets : start of each vertex's edges in targets, length n+1
+ *      targets : destination index of each edge, grouped by source, length m
+ *      reverseOffsets : start of each vertex's in-edges in reverseSources, length n+1
+ *      reverseSources : source index of each edge, grouped by destination, length m
+ *      weights : length of each edge, aligned with targets, null if computed on the fly
+ *      reverseWeights : length of each edge, aligned with reverseSources, null if computed on the fly
+ *      inputIndex : index each vertex had in the input, null if the graph is in input order
+ *      indexOfInput : index of each input vertex in this graph, -1 if it was dropped, null if in input order
+ */
+public class Graph {
+    // Fields
+    private final int numberOfVertexes;
+    private final int numberOfEdges;
+    private final double[] coordinates;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverseOffsets;
+    private final int[] reverseSources;
+    private final double[] weights;
+    private final double[] reverseWeights;
+    private final int[] inputIndex;
+    private final int[] indexOfInput;
+
+
+    // Constructor Methods
+    public Graph(double[] packedCoordinates, int[] edgeOffsets, int[] edgeTargets,
+                 int[] reverseEdgeOffsets, int[] reverseEdgeSources) {
+        this(packedCoordinates, edgeOffsets, edgeTargets, reverseEdgeOffsets, reverseEdgeSources, null, null, true);
+    }
+
+    private Graph(double[] packedCoordinates, int[] edgeOffsets, int[] edgeTargets,
+                  int[] reverseEdgeOffsets, int[] reverseEdgeSources, int[] inputIndexes, int[] indexesOfInput,
+                  boolean storeWeights) {
+        numberOfVertexes = edgeOffsets.length - 1;
+        numberOfEdges = edgeTargets.length;
+        coordinates = packedCoordinates;
+        offsets = edgeOffsets;
+        targets = edgeTargets;
+        reverseOffsets = reverseEdgeOffsets;
+        reverseSources = reverseEdgeSources;
+        inputIndex = inputIndexes;
+        indexOfInput = indexesOfInput;
+        weights = storeWeights ? edgeLengths(offsets, targets) : null;
+        reverseWeights = storeWeights ? edgeLengths(reverseOffsets, reverseSources) : null;
+    }
+
+
+    /**
+     * read Method
+     * Reads a graph in the input format described in the README and builds the CSR arrays
+     * in two passes over the edge list:
+     *      1) read each edge into a pair of int arrays, counting the out-degree of its source
+     *         and the in-degree of its destination
+     *      2) prefix sum the degrees into offsets, then place each edge in its source's range,
+     *         and in its destination's range of the reverse index
+     * Edges of a vertex keep the order they were listed in the input.
+     * Efficiency of O(n + m)
+     */
+    public static Graph read(File inputFile) throws FileNotFoundException {
+        return read(inputFile, true);
+    }
+
+    // Same as read(inputFile), computing the edge weights on the fly instead if storeWeights is false
+    public static Graph read(File inputFile, boolean storeWeights) throws FileNotFoundException {
+        Scanner inputScanner = new Scanner(inputFile);
+
+        // Reads the first line for number of vertexes(n) and edges(m)
+        int numberOfVertexes = inputScanner.nextInt();
+        int numberOfEdges = inputScanner.nextInt();
+
+        // Reads next n lines, packing each vertex's coordinates into the xyz array
+        // Efficiency of O(n)
+        double[] coordinates = new double[3 * numberOfVertexes];
+        for (int i = 0; i < 3 * numberOfVertexes; i++) {
+            coordinates[i] = inputScanner.nextDouble();
+        }
+
+        // First pass: reads the next m lines into flat edge arrays and counts out-degrees and
+        // in-degrees.  The degree of vertex v is counted at offsets[v + 1] so the prefix sum
+        // below lines up
+        // Efficiency of O(m)
+        int[] edgeSource = new int[numberOfEdges];
+        int[] edgeDestination = new int[numberOfEdges];
+        int[] offsets = new int[numberOfVertexes + 1];
+        int[] reverseOffsets = new int[numberOfVertexes + 1];
+        for (int i = 0; i < numberOfEdges; i++) {
+            edgeSource[i] = inputScanner.nextInt() - 1;
+            edgeDestination[i] = inputScanner.nextInt() - 1;
+            offsets[edgeSource[i] + 1]++;
+            reverseOffsets[edgeDestination[i] + 1]++;
+        }
+        inputScanner.close();
+
+        // Second pass: turns the degree counts into start offsets, then drops each edge into
+        // the next free slot of its source's range, and of its destination's reverse range
+        // Efficiency of O(n + m)
+        for (int v = 0; v < numberOfVertexes; v++) {
+            offsets[v + 1] += offsets[v];
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] nextSlot = Arrays.copyOf(offsets, numberOfVertexes);
+        int[] nextReverseSlot = Arrays.copyOf(reverseOffsets, numberOfVertexes);
+        int[] targets = new int[numberOfEdges];
+        int[] reverseSources = new int[numberOfEdges];
+        for (int i = 0; i < numberOfEdges; i++) {
+            targets[nextSlot[edgeSource[i]]++] = edgeDestination[i];
+            reverseSources[nextReverseSlot[edgeDestination[i]]++] = edgeSource[i];
+        }
+
+        return new Graph(coordinates, offsets, targets, reverseOffsets, reverseSources, null, null, storeWeights);
+    }
+
+
+    /**
+     * renumbered Method
+     * Returns a copy of the graph with its vertexes in the given order: vertex order[i] of this
+     * graph becomes vertex i of the copy.  Each vertex keeps its edges in the same order, with
+     * their ends translated to the new numbering, and the copy remembers every vertex's input
+     * index.  The copy stores edge weights if this graph does.
+     * Efficiency of O(n + m)
+     */
+    public Graph renumbered(int[] order) {
+        if (order.length != numberOfVertexes) {
+            throw new IllegalArgumentException("Order lists " + order.length + " vertexes, the graph has "
+                    + numberOfVertexes);
+        }
+        int[] newIndex = new int[numberOfVertexes];
+        for (int i = 0; i < numberOfVertexes; i++) {
+            newIndex[order[i]] = i;
+        }
+
+        double[] newCoordinates = new double[3 * numberOfVertexes];
+        int[] newOffsets = new int[numberOfVertexes + 1];
+        int[] newTargets = new int[numberOfEdges];
+        int[] newReverseOffsets = new int[numberOfVertexes + 1];
+        int[] newReverseSources = new int[numberOfEdges];
+        int[] newInputIndex = new int[numberOfVertexes];
+        for (int i = 0; i < numberOfVertexes; i++) {
+            int old = order[i];
+            System.arraycopy(coordinates, 3 * old, newCoordinates, 3 * i, 3);
+            newOffsets[i + 1] = newOffsets[i] + (offsets[old + 1] - offsets[old]);
+            for (int edge = offsets[old], slot = newOffsets[i]; edge < offsets[old + 1]; edge++, slot++) {
+                newTargets[slot] = newIndex[targets[edge]];
+            }
+            newReverseOffsets[i + 1] = newReverseOffsets[i] + (reverseOffsets[old + 1] - reverseOffsets[old]);
+            for (int edge = reverseOffsets[old], slot = newReverseOffsets[i]; edge < reverseOffsets[old + 1]; edge++, slot++) {
+                newReverseSources[slot] = newIndex[reverseSources[edge]];
+            }
+            newInputIndex[i] = getInputIndex(old);
+        }
+
+        int[] newIndexOfInput = new int[getNumberOfInputVertexes()];
+        Arrays.fill(newIndexOfInput, -1);
+        for (int i = 0; i < numberOfVertexes; i++) {
+            newIndexOfInput[newInputIndex[i]] = i;
+        }
+        return new Graph(newCoordinates, newOffsets, newTargets, newReverseOffsets, newReverseSources,
+                newInputIndex, newIndexOfInput, weights != null);
+    }
+
+    /**
+     * restrictedTo Method
+     * Returns the subgraph of the vertexes marked in keep, and the edges between them.  Kept
+     * vertexes keep their relative order and their edges' order, and the subgraph remembers every
+     * vertex's input index; getIndex() returns -1 for an input vertex that was dropped.  The
+     * subgraph stores edge weights if this graph does.
+     * Efficiency of O(n + m)
+     */
+    public Graph restrictedTo(boolean[] keep) {
+        if (keep.length != numberOfVertexes) {
+            throw new IllegalArgumentException("Marks cover " + keep.length + " vertexes, the graph has "
+                    + numberOfVertexes);
+        }
+        int[] newIndex = new int[numberOfVertexes];
+        int keptVertexes = 0;
+        for (int v = 0; v < numberOfVertexes; v++) {
+            newIndex[v] = keep[v] ? keptVertexes++ : -1;
+        }
+
+        // Counts the kept edges in both directions, then copies them
+        int keptEdges = 0;
+        for (int v = 0; v < numberOfVertexes; v++) {
+            if (keep[v]) {
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    if (keep[targets[edge]]) {
+                        keptEdges++;
+                    }
+                }
+            }
+        }
+        double[] newCoordinates = new double[3 * keptVertexes];
+        int[] newOffsets = new int[keptVertexes + 1];
+        int[] newTargets = new int[keptEdges];
+        int[] newReverseOffsets = new int[keptVertexes + 1];
+        int[] newReverseSources = new int[keptEdges];
+        int[] newInputIndex = new int[keptVertexes];
+        int slot = 0;
+        int reverseSlot = 0;
+        for (int v = 0; v < numberOfVertexes; v++) {
+            if (!keep[v]) {
+                continue;
+            }
+            int i = newIndex[v];
+            System.arraycopy(coordinates, 3 * v, newCoordinates, 3 * i, 3);
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                if (keep[targets[edge]]) {
+                    newTargets[slot++] = newIndex[targets[edge]];
+                }
+            }
+            newOffsets[i + 1] = slot;
+            for (int edge = reverseOffsets[v]; edge < reverseOffsets[v + 1]; edge++) {
+                if (keep[reverseSources[edge]]) {
+                    newReverseSources[reverseSlot++] = newIndex[reverseSources[edge]];
+                }
+            }
+            newReverseOffsets[i + 1] = reverseSlot;
+            newInputIndex[i] = getInputIndex(v);
+        }
+
+        int[] newIndexOfInput = new int[getNumberOfInputVertexes()];
+        Arrays.fill(newIndexOfInput, -1);
+        for (int i = 0; i < keptVertexes; i++) {
+            newIndexOfInput[newInputIndex[i]] = i;
+        }
+        return new Graph(newCoordinates, newOffsets, newTargets, newReverseOffsets, newReverseSources,
+                newInputIndex, newIndexOfInput, weights != null);
+    }
+
+    // Translates between a vertex's index in the input and its index in this graph
+    public int getIndex(int inputVertexIndex) {
+        return (indexOfInput == null) ? inputVertexIndex : indexOfInput[inputVertexIndex];
+    }
+    public int getInputIndex(int vertex) {
+        return (inputIndex == null) ? vertex : inputIndex[vertex];
+    }
+    // Whether every vertex still has its input index, so the graph was neither renumbered nor cut down
+    public boolean isInInputOrder() {
+        return inputIndex == null;
+    }
+    // Number of vertexes in the input, more than this graph has if vertexes were dropped (see restrictedTo())
+    public int getNumberOfInputVertexes() {
+        return (indexOfInput == null) ? numberOfVertexes : indexOfInput.length;
+    }
+
+
+    /**
+     * getEdgeWeight Method
+     * Length of the edge in slot edge of targets, whose source is vertex source
+     */
+    public double getEdgeWeight(int source, int edge) {
+        return (weights != null) ? weights[edge] : getDistanceBetween(source, targets[edge]);
+    }
+
+    /**
+     * getReverseEdgeWeight Method
+     * Length of the edge in slot edge of reverseSources, whose destination is vertex destination
+     */
+    public double getReverseEdgeWeight(int destination, int edge) {
+        return (reverseWeights != null) ? reverseWeights[edge] : getDistanceBetween(reverseSources[edge], destination);
+    }
+
+    // Whether the edge weights are stored, rather than computed on the fly
+    public boolean hasStoredWeights() {
+        return weights != null;
+    }
+
+
+    /**
+     * getDistanceBetween Method
+     * Euclidean distance between two vertexes, read straight from the packed coordinates.
+     * Same formula as Dijkstra.getDistanceBetween()
+     */
+    public double getDistanceBetween(int source, int destination) {
+        double dx = coordinates[3 * destination] - coordinates[3 * source];
+        double dy = coordinates[3 * destination + 1] - coordinates[3 * source + 1];
+        double dz = coordinates[3 * destination + 2] - coordinates[3 * source + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfVertexes() {
+        return numberOfVertexes;
+    }
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+    public int[] getOffsets() {
+        return offsets;
+    }
+    public int[] getTargets() {
+        return targets;
+    }
+    public int[] getReverseOffsets() {
+        return reverseOffsets;
+    }
+    public int[] getReverseSources() {
+        return reverseSources;
+    }
+
+    // Location of a single vertex, for callers that want an object view
+    public Dijkstra.Location getLocation(int vertex) {
+        return new Dijkstra.Location(coordinates[3 * vertex], coordinates[3 * vertex + 1], coordinates[3 * vertex + 2]);
+    }
+
+
+    // Helper Methods
+
+    /**
+     * edgeLengths Method
+     * Computes the Euclidean length of every edge of one CSR list (forward or reverse), in slot
+     * order.  Each vertex's coordinates are loaded once for all of its edges, and the loop body
+     * has no branches, so it runs straight through the edge list.
+     * Efficiency of O(n + m)
+     */
+    private double[] edgeLengths(int[] listOffsets, int[] neighbors) {
+        double[] lengths = new double[neighbors.length];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            double x = coordinates[3 * v];
+            double y = coordinates[3 * v + 1];
+            double z = coordinates[3 * v + 2];
+            for (int edge = listOffsets[v]; edge < listOffsets[v + 1]; edge++) {
+                int neighbor = neighbors[edge];
+                double dx = coordinates[3 * neighbor] - x;
+                double dy = coordinates[3 * neighbor + 1] - y;
+                double dz = coordinates[3 * neighbor + 2] - z;
+                lengths[edge] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }
+        }
+        return lengths;
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.*;
+
+/**
+ * HilbertCurve Class
+ *
+ * Orders the vertexes of a Graph along a 3-D Hilbert curve, for renumbering the graph (see
+ * Graph.renumbered()).  The input can list vertexes in any order, so the neighbors of a vertex,
+ * which are close to it in space, may be stored anywhere in the graph's arrays, and a search
+ * misses the cache on almost every distance and coordinate it reads.  The Hilbert curve passes
+ * through every cell of a grid without jumping, so vertexes that are near each other in space
+ * are mostly near each other along the curve, and after renumbering a search's working set sits
+ * in far fewer cache lines and pages.
+ *
+ * The coordinates are scaled onto a grid of 2^b cells per axis (the same scale for all three
+ * axes, so the curve follows the true shape of the point set), and each vertex's cell is turned
+ * into its distance along the curve with Skilling's transpose method (J. Skilling, "Programming
+ * the Hilbert curve", 2004).  The 3b bit curve position and the vertex index are packed into one
+ * long, so sorting a long[] sorts the vertexes by curve position, with ties broken by index.
+ * b is chosen to leave room for the index in the long, at most 21 bits per axis.
+ * For complexity arguments, n = number of vertexes.  Ordering takes O(n log(n)) time.
+ */
+public class HilbertCurve {
+    // Most grid bits per axis, 3 * 21 = 63 bits of curve position
+    public static final int MAX_BITS_PER_AXIS = 21;
+
+    // Static Class, not instantiated
+    private HilbertCurve() {
+    }
+
+
+    /**
+     * order Method
+     * Returns the graph's vertexes sorted by position along the Hilbert curve, as an order for
+     * Graph.renumbered()
+     * Completed in O(n log(n)) time
+     */
+    public static int[] order(Graph graph) {
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        double[] coordinates = graph.getCoordinates();
+
+        // Bits needed for the vertex index, and the grid resolution that fits beside it
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(numberOfVertexes - 1, 1));
+        int bitsPerAxis = Math.min(MAX_BITS_PER_AXIS, (63 - indexBits) / 3);
+
+        // Bounding box, scaled by its longest side
+        double[] low = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+        double extent = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            double high = -Double.MAX_VALUE;
+            for (int v = 0; v < numberOfVertexes; v++) {
+                low[axis] = Math.min(low[axis], coordinates[3 * v + axis]);
+                high = Math.max(high, coordinates[3 * v + axis]);
+            }
+            extent = Math.max(extent, high - low[axis]);
+        }
+        long cells = 1L << bitsPerAxis;
+        double scale = (extent > 0) ? (cells - 1) / extent : 0;
+
+        // Packs each vertex's curve position above its index, and sorts
+        long[] keys = new long[numberOfVertexes];
+        int[] cell = new int[3];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            for (int axis = 0; axis < 3; axis++) {
+                cell[axis] = (int) ((coordinates[3 * v + axis] - low[axis]) * scale);
+            }
+            keys[v] = (curvePosition(cell, bitsPerAxis) << indexBits) | v;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[numberOfVertexes];
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < numberOfVertexes; i++) {
+            order[i] = (int) (keys[i] & indexMask);
+        }
+        return order;
+    }
+
+
+    /**
+     * curvePosition Method
+     * Returns the distance along a 3-D Hilbert curve of order bits of the grid cell (x, y, z),
+     * each coordinate in [0, 2^bits).  The cell array is overwritten.
+     * Skilling's method first turns the coordinates into the "transposed" curve position in place,
+     * undoing the curve's rotations and reflections level by level, then Gray decodes it.  The
+     * position is then read off by interleaving the bits of the three results, highest first.
+     * Completed in O(bits) time
+     */
+    public static long curvePosition(int[] cell, int bits) {
+        int highBit = 1 << (bits - 1);
+
+        // Inverse undo: rotates and reflects each lower level into the frame of the level above
+        for (int q = highBit; q > 1; q >>= 1) {
+            int lowerBits = q - 1;
+            for (int axis = 0; axis < 3; axis++) {
+                if ((cell[axis] & q) != 0) {
+                    cell[0] ^= lowerBits;
+                }
+                else {
+                    int swap = (cell[0] ^ cell[axis]) & lowerBits;
+                    cell[0] ^= swap;
+                    cell[axis] ^= swap;
+                }
+            }
+        }
+
+        // Gray encodes the transposed position
+        cell[1] ^= cell[0];
+        cell[2] ^= cell[1];
+        int flip = 0;
+        for (int q = highBit; q > 1; q >>= 1) {
+            if ((cell[2] & q) != 0) {
+                flip ^= q - 1;
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            cell[axis] ^= flip;
+        }
+
+        // Interleaves the bits, x before y before z at each level
+        long position = 0;
+        for (int bit = bits - 1; bit >= 0; bit--) {
+            for (int axis = 0; axis < 3; axis++) {
+                position = (position << 1) | ((cell[axis] >> bit) & 1);
+            }
+        }
+        return position;
+    }
+}
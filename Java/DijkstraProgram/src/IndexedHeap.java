@@ -0,0 +1,203 @@
+import java.util.*;
+
+/**
+ * IndexedHeap Class
+ *
+ * An int-indexed d-ary min-heap used as the frontier in Dijkstra's algorithm.  Rather than
+ * holding Vertex objects, the heap holds vertex indexes, and orders them by the value stored
+ * for that index in a double[] key array owned by the caller (normally the distance array).
+ * A position map records where each index sits in the heap, so a lowered key is fixed in place
+ * with a real decrease-key instead of pushing a duplicate entry.  Each vertex appears in the heap
+ * at most once, so the heap never holds more than n entries, and nothing is allocated after
+ * construction.
+ * For complexity arguments, n = capacity of the heap, d = arity.
+ *      add, decreaseKey : O(log_d(n))
+ *      poll : O(d * log_d(n))
+ *      contains, peek : O(1)
+ * A 4-ary heap is a good default: the tree is half as deep as a binary heap, and the d children
+ * of a node sit next to each other in memory.
+ *
+ * Note: the caller must write the new key into the key array BEFORE calling add() or decreaseKey()
+ *
+ * Fields:
+ *      keys : the key of each index, shared with the caller
+ *      arity : the number of children of each heap node (d)
+ *      heap : the indexes in heap order, only the first size entries are in use
+ *      position : the slot of each index inside heap, or -1 if the index is not in the heap
+ *      size : the number of indexes currently in the heap
+ */
+public class IndexedHeap {
+    // Default number of children per node
+    public static final int DEFAULT_ARITY = 4;
+
+    // Fields
+    private final double[] keys;
+    private final int arity;
+    private final int[] heap;
+    private final int[] position;
+    private int size;
+
+
+    // Constructor Methods
+    public IndexedHeap(double[] keyArray, int capacity) {
+        this(keyArray, capacity, DEFAULT_ARITY);
+    }
+
+    public IndexedHeap(double[] keyArray, int capacity, int heapArity) {
+        if (heapArity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2, was " + heapArity);
+        }
+        keys = keyArray;
+        arity = heapArity;
+        heap = new int[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+
+
+    // Size and membership
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+
+    /**
+     * add Method
+     * Inserts an index that is not currently in the heap, ordered by keys[index].
+     * Completed in O(log_d(n)) time
+     */
+    public void add(int index) {
+        heap[size] = index;
+        position[index] = size;
+        siftUp(size);
+        size++;
+    }
+
+    /**
+     * decreaseKey Method
+     * Restores the heap order after keys[index] has been lowered by the caller.
+     * Completed in O(log_d(n)) time
+     */
+    public void decreaseKey(int index) {
+        siftUp(position[index]);
+    }
+
+    /**
+     * addOrDecreaseKey Method
+     * Convenience for relaxation: inserts the index if it is not in the heap yet, otherwise
+     * moves it up to match its lowered key
+     */
+    public void addOrDecreaseKey(int index) {
+        if (position[index] < 0) {
+            add(index);
+        }
+        else {
+            siftUp(position[index]);
+        }
+    }
+
+
+    // Minimum access
+    public int peek() {
+        return heap[0];
+    }
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * poll Method
+     * Removes and returns the index with the smallest key.  The last entry is moved to the
+     * root and sifted down.
+     * Completed in O(d * log_d(n)) time
+     */
+    public int poll() {
+        int minimum = heap[0];
+        position[minimum] = -1;
+        size--;
+
+        // Moves the last entry to the root, if there is anything left
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return minimum;
+    }
+
+    /**
+     * clear Method
+     * Empties the heap so it can be reused for another search.  Only the entries still in the
+     * heap are touched, so this takes O(size) time rather than O(n)
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+
+    // Helper Methods
+
+    // Moves the entry at slot up the tree until its parent's key is no larger
+    private void siftUp(int slot) {
+        int index = heap[slot];
+        double key = keys[index];
+
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / arity;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+
+    // Moves the entry at slot down the tree, swapping with its smallest child, until
+    // no child has a smaller key
+    private void siftDown(int slot) {
+        int index = heap[slot];
+        double key = keys[index];
+
+        while (true) {
+            int firstChild = slot * arity + 1;
+            if (firstChild >= size) {
+                break;
+            }
+
+            // Finds the smallest of the (up to) d children
+            int lastChild = Math.min(firstChild + arity, size);
+            int bestSlot = firstChild;
+            double bestKey = keys[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < bestKey) {
+                    bestSlot = child;
+                    bestKey = childKey;
+                }
+            }
+
+            if (bestKey >= key) {
+                break;
+            }
+            heap[slot] = heap[bestSlot];
+            position[heap[slot]] = slot;
+            slot = bestSlot;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+}
@@ -0,0 +1,399 @@
+import java.util.*;
+
+/**
+ * KShortestPaths Class
+ *
+ * The k shortest loopless paths between two vertexes, by Yen's algorithm.  The first path is the
+ * shortest path.  Every later path leaves some earlier path at a spur vertex: it follows the earlier
+ * path from the source up to the spur vertex (the root), then takes a spur path to the target
+ * that avoids the root's other vertexes and every edge out of the spur vertex already used by an
+ * accepted path with the same root.  Each accepted path spawns one spur search per vertex on it,
+ * the resulting paths are kept as candidates, and the shortest candidate is the next path.
+ *
+ * Spur searches reuse one search state instead of copying the graph:
+ *      - Removed vertexes and edges are not deleted but marked with stamps: a vertex is part of
+ *        the current root if it was stamped by the current path and lies before the spur vertex
+ *        on it, and an edge out of the spur vertex is removed if its head carries the current
+ *        search's stamp.  Distances, predecessors and marks all use generation stamps, so a spur
+ *        search is started in O(1) and touches only what it explores.
+ *      - Before the first spur search, one backward search from the target gives the exact
+ *        distance from every vertex to the target in the whole graph (toTarget), and the tree of
+ *        those shortest paths.  Removing vertexes and edges can only make distances longer, so
+ *        toTarget is a lower bound in every spur search, which runs as an A* search ordered by
+ *        distance plus toTarget.  Vertexes that cannot reach the target are never entered.
+ *      - The search can stop at the first vertex it removes from the heap whose tree path to the
+ *        target uses no removed vertex or edge: that path completes the vertex's partial path at
+ *        exactly its lower bound, which no other path can beat.  Usually that is within a few
+ *        vertexes of the spur vertex.  Whether a vertex's tree path is free is remembered for the
+ *        rest of the search, so each tree vertex is checked at most once per search.
+ * Path lengths are added up in path order, from the source, so the first path's length is the
+ * same number the plain search prints.  Candidates already found are remembered in a hash set,
+ * so the same path is never queued twice.
+ * For complexity arguments, n = number of vertexes, while m = edges, and L = vertexes on a path.
+ * Finding k paths takes O(m log(n)) for the two full searches plus k L spur searches, each far
+ * smaller than a full search in practice.
+ *
+ * Fields:
+ *      graph : the graph searched
+ *      firstSearch : the plain search that finds the first path
+ *      toTarget, towardTarget : distance from each vertex to the target, and the next vertex on its
+ *                               shortest path there, from the backward search
+ *      distances, distance, predecessor, priority, heap : spur search state, distances reset in O(1)
+ *                                                         per search (see StampedDistances)
+ *      generation : generation of distances in the current spur search, which also marks
+ *                   removedStamp and freeStamp
+ *      pathStamp, pathPosition : the position of each vertex on the path whose spurs are being
+ *                                searched, only valid where pathStamp matches pathGeneration
+ *      removedStamp : marks the heads of the removed edges out of the current spur vertex
+ *      freeStamp, treeFree : whether each vertex's tree path to the target is free, only valid
+ *                            where freeStamp matches generation
+ *      paths, lengths : the paths found so far, shortest first
+ *      candidates, queued : the candidate paths, and every path ever queued
+ *      spurBuffer : the spur path being built, spur vertex to target
+ *      expandedCount, spurSearches : work done by the last find()
+ */
+public class KShortestPaths {
+    // Fields
+    private final Graph graph;
+    private final ShortestPathSearch firstSearch;
+    private final double[] toTarget;
+    private final int[] towardTarget;
+    private final StampedDistances distances;
+    private final double[] distance;
+    private final int[] predecessor;
+    private final double[] priority;
+    private final IndexedHeap heap;
+    private int generation;
+    private final int[] pathStamp;
+    private final int[] pathPosition;
+    private int pathGeneration;
+    private final int[] removedStamp;
+    private final int[] freeStamp;
+    private final boolean[] treeFree;
+
+    private final List<int[]> paths = new ArrayList<int[]>();
+    private final List<Double> lengths = new ArrayList<Double>();
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+    private final Set<Candidate> queued = new HashSet<Candidate>();
+    private int[] spurBuffer = new int[64];
+    private long expandedCount;
+    private int spurSearches;
+
+
+    // Constructor Method
+    public KShortestPaths(Graph searchGraph) {
+        graph = searchGraph;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        firstSearch = new ShortestPathSearch(graph);
+        toTarget = new double[numberOfVertexes];
+        towardTarget = new int[numberOfVertexes];
+        distances = new StampedDistances(numberOfVertexes);
+        distance = distances.getValues();
+        predecessor = new int[numberOfVertexes];
+        priority = new double[numberOfVertexes];
+        heap = new IndexedHeap(priority, numberOfVertexes, Dijkstra.HEAP_ARITY);
+        pathStamp = new int[numberOfVertexes];
+        pathPosition = new int[numberOfVertexes];
+        removedStamp = new int[numberOfVertexes];
+        freeStamp = new int[numberOfVertexes];
+        treeFree = new boolean[numberOfVertexes];
+    }
+
+
+    /**
+     * find Method
+     * Finds up to k shortest loopless paths from source to target, shortest first, and returns
+     * how many there are (fewer than k if the graph has no more, 0 if the target cannot be reached)
+     * Completed in O(m log(n)) time plus k L spur searches
+     */
+    public int find(int source, int target, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Number of paths must be at least 1, was " + k);
+        }
+        paths.clear();
+        lengths.clear();
+        candidates.clear();
+        queued.clear();
+        expandedCount = 0;
+        spurSearches = 0;
+
+        // The first path is the plain shortest path
+        if (firstSearch.dijkstra(source, target) == Double.MAX_VALUE) {
+            return 0;
+        }
+        expandedCount += firstSearch.getExpandedCount();
+        int length = firstSearch.buildPath();
+        accept(new Candidate(Arrays.copyOf(firstSearch.getPathVertexes(), length), firstSearch.getDistance(target)));
+        if (k == 1) {
+            return 1;
+        }
+        searchBackward(target);
+
+        while (paths.size() < k) {
+            int[] previous = paths.get(paths.size() - 1);
+
+            // Numbers the previous path's vertexes, so "on the root" is one comparison
+            pathGeneration++;
+            for (int i = 0; i < previous.length; i++) {
+                pathStamp[previous[i]] = pathGeneration;
+                pathPosition[previous[i]] = i;
+            }
+
+            // Accepted paths that share the root so far, narrowed as the spur vertex moves on
+            List<int[]> sameRoot = new ArrayList<int[]>(paths);
+            for (int spurIndex = 0; spurIndex < previous.length - 1; spurIndex++) {
+                int spur = previous[spurIndex];
+                startSearch();
+                for (Iterator<int[]> it = sameRoot.iterator(); it.hasNext(); ) {
+                    int[] path = it.next();
+                    if (path.length <= spurIndex + 1 || path[spurIndex] != spur) {
+                        it.remove();
+                    }
+                    else {
+                        removedStamp[path[spurIndex + 1]] = generation;
+                    }
+                }
+
+                int spurLength = spurSearch(spur, target, spurIndex);
+                if (spurLength > 0) {
+                    int[] vertexes = Arrays.copyOf(previous, spurIndex + spurLength);
+                    System.arraycopy(spurBuffer, 0, vertexes, spurIndex, spurLength);
+                    Candidate candidate = new Candidate(vertexes, lengthOf(vertexes));
+                    if (queued.add(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accept(candidates.poll());
+        }
+        return paths.size();
+    }
+
+
+    // Getters for the results of the last find()
+    public int getNumberOfPaths() {
+        return paths.size();
+    }
+    // Vertex indexes of path i, source first
+    public int[] getPath(int i) {
+        return paths.get(i);
+    }
+    public double getLength(int i) {
+        return lengths.get(i);
+    }
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+    public int getNumberOfSpurSearches() {
+        return spurSearches;
+    }
+
+
+    // Helper Methods
+
+    // Adds a path to the results
+    private void accept(Candidate candidate) {
+        paths.add(candidate.vertexes);
+        lengths.add(candidate.length);
+        queued.add(candidate);
+    }
+
+    /**
+     * searchBackward Method
+     * Plain Dijkstra from target over the in-edges, filling toTarget and towardTarget for every
+     * vertex, MAX and -1 where the target cannot be reached
+     * Completed in O(m log(n)) time
+     */
+    private void searchBackward(int target) {
+        int[] reverseOffsets = graph.getReverseOffsets();
+        int[] reverseSources = graph.getReverseSources();
+        IndexedHeap backwardHeap = new IndexedHeap(toTarget, graph.getNumberOfVertexes(), Dijkstra.HEAP_ARITY);
+
+        Arrays.fill(toTarget, Double.MAX_VALUE);
+        toTarget[target] = 0;
+        towardTarget[target] = -1;
+        backwardHeap.add(target);
+        while (!backwardHeap.isEmpty()) {
+            int currentIndex = backwardHeap.poll();
+            expandedCount++;
+            for (int edge = reverseOffsets[currentIndex]; edge < reverseOffsets[currentIndex + 1]; edge++) {
+                int neighborIndex = reverseSources[edge];
+                double newDistance = toTarget[currentIndex] + graph.getReverseEdgeWeight(currentIndex, edge);
+                if (newDistance < toTarget[neighborIndex]) {
+                    toTarget[neighborIndex] = newDistance;
+                    towardTarget[neighborIndex] = currentIndex;
+                    backwardHeap.addOrDecreaseKey(neighborIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * spurSearch Method
+     * A* search from the spur vertex to the target that avoids the root and the removed edges
+     * (see the class comment), stopping at the first vertex whose tree path is free.  Leaves the
+     * spur path, spur vertex to target, in spurBuffer and returns its number of vertexes, or 0
+     * if the target cannot be reached.
+     */
+    private int spurSearch(int spur, int target, int spurIndex) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        spurSearches++;
+
+        distances.set(spur, 0);
+        priority[spur] = toTarget[spur];
+        predecessor[spur] = -1;
+        heap.add(spur);
+
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            expandedCount++;
+            if (isTreeFree(currentIndex, spur, spurIndex)) {
+                return buildSpurPath(currentIndex);
+            }
+
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                if (toTarget[neighborIndex] == Double.MAX_VALUE || isOnRoot(neighborIndex, spurIndex)
+                        || (currentIndex == spur && removedStamp[neighborIndex] == generation)) {
+                    continue;
+                }
+                double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+                if (newDistance < distances.get(neighborIndex)) {
+                    distances.set(neighborIndex, newDistance);
+                    priority[neighborIndex] = newDistance + toTarget[neighborIndex];
+                    predecessor[neighborIndex] = currentIndex;
+                    heap.addOrDecreaseKey(neighborIndex);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * isTreeFree Method
+     * Whether the tree path from vertex to the target avoids the root and the removed edges.
+     * The answer is stored for every vertex on the part of the tree path that had to be walked,
+     * so later calls stop at the first vertex already known.
+     * Efficiency of O(1) amortized over a search
+     */
+    private boolean isTreeFree(int vertex, int spur, int spurIndex) {
+        // Walks until the answer is known: the target, a known vertex, or a blocked step
+        boolean free = true;
+        int end = vertex;
+        while (end >= 0 && freeStamp[end] != generation) {
+            int next = towardTarget[end];
+            if (isOnRoot(end, spurIndex) || (end == spur && next >= 0 && removedStamp[next] == generation)) {
+                free = false;
+                break;
+            }
+            end = next;
+        }
+        if (end >= 0 && freeStamp[end] == generation) {
+            free = treeFree[end];
+        }
+
+        // Records the answer along the walked part (a blocked vertex is recorded too)
+        for (int v = vertex; v >= 0 && freeStamp[v] != generation; v = towardTarget[v]) {
+            freeStamp[v] = generation;
+            treeFree[v] = free;
+            if (v == end) {
+                break;
+            }
+        }
+        return free;
+    }
+
+    // Lists the spur path into spurBuffer: the search's path from the spur vertex to end, then
+    // end's tree path to the target, and returns its number of vertexes
+    private int buildSpurPath(int end) {
+        int length = 0;
+        for (int v = end; v >= 0; v = predecessor[v]) {
+            length++;
+        }
+        for (int v = towardTarget[end]; v >= 0; v = towardTarget[v]) {
+            length++;
+        }
+        if (length > spurBuffer.length) {
+            spurBuffer = new int[Math.max(length, 2 * spurBuffer.length)];
+        }
+        int slot = 0;
+        for (int v = end; v >= 0; v = predecessor[v]) {
+            spurBuffer[slot++] = v;
+        }
+        for (int i = 0, j = slot - 1; i < j; i++, j--) {
+            int swap = spurBuffer[i];
+            spurBuffer[i] = spurBuffer[j];
+            spurBuffer[j] = swap;
+        }
+        for (int v = towardTarget[end]; v >= 0; v = towardTarget[v]) {
+            spurBuffer[slot++] = v;
+        }
+        return length;
+    }
+
+    // Length of a path, added up edge by edge from the source
+    private double lengthOf(int[] vertexes) {
+        double length = 0;
+        for (int i = 1; i < vertexes.length; i++) {
+            length += graph.getDistanceBetween(vertexes[i - 1], vertexes[i]);
+        }
+        return length;
+    }
+
+    // Whether a vertex is on the root of the current spur search, before the spur vertex
+    private boolean isOnRoot(int vertex, int spurIndex) {
+        return pathStamp[vertex] == pathGeneration && pathPosition[vertex] < spurIndex;
+    }
+
+    // Moves to a new generation, discarding the distances and marks of the previous spur search
+    // (see StampedDistances).  The marks are cleared along with the distances' stamps when the
+    // generation counter wraps
+    private void startSearch() {
+        if (distances.nextGeneration()) {
+            Arrays.fill(removedStamp, 0);
+            Arrays.fill(freeStamp, 0);
+        }
+        generation = distances.getGeneration();
+        heap.clear();
+    }
+
+
+    // Additional Classes
+
+    /**
+     * Candidate Class
+     * A path and its length, ordered by length, and equal to another candidate with the same vertexes
+     * Fields:
+     *      vertexes : vertex indexes along the path, source first
+     *      length : total length of the path
+     *      hash : hash of the vertexes, computed once
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        // Fields
+        private final int[] vertexes;
+        private final double length;
+        private final int hash;
+
+        // Constructor Method
+        Candidate(int[] pathVertexes, double pathLength) {
+            vertexes = pathVertexes;
+            length = pathLength;
+            hash = Arrays.hashCode(vertexes);
+        }
+
+        public int compareTo(Candidate other) {
+            return Double.compare(length, other.length);
+        }
+        public boolean equals(Object other) {
+            return other instanceof Candidate && Arrays.equals(vertexes, ((Candidate) other).vertexes);
+        }
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.*;
+
+/**
+ * KdTree Class
+ *
+ * A 3-D k-d tree over the vertex coordinates of a Graph, for snapping arbitrary xyz points to
+ * their nearest vertex, so a query can be given as positions instead of vertex numbers.
+ *
+ * The tree is implicit in one permutation of the vertex indexes: the range [low, high) is a node,
+ * its median position mid holds the node's vertex, and the halves [low, mid) and [mid + 1, high)
+ * are its children.  Each node splits along the axis where its range is widest, found when the
+ * tree is built and stored per node (axis), so elongated point sets still get square-ish cells.
+ * Ranges of at most LEAF_SIZE vertexes are not split further and are scanned directly, which is
+ * faster than descending into nodes of one or two points.
+ * A nearest-vertex query descends to the leaf holding the point, then backs up, only entering the
+ * other child of a node if the splitting plane is closer than the best vertex found so far.  On
+ * spatial inputs that visits O(log(n)) nodes.  Ties go to the vertex listed first in the input,
+ * so a renumbered graph snaps to the same vertexes.  Queries only read the tree, so any number of
+ * threads can snap points at once, each with its own NearestQuery.
+ * For complexity arguments, n = number of vertexes.  Building takes O(n log(n)) expected time (a
+ * quickselect per level) and the tree takes O(n) space next to the graph's coordinates.
+ *
+ * Fields:
+ *      graph : the graph the tree indexes
+ *      coordinates : the graph's packed xyz coordinates (see Graph), shared, not copied
+ *      vertexes : the vertex indexes in tree order
+ *      axis : the splitting axis (0, 1 or 2) of the node whose median is at each position
+ */
+public class KdTree {
+    // Ranges of at most this many vertexes are scanned instead of split
+    public static final int LEAF_SIZE = 8;
+
+    // Fields
+    private final Graph graph;
+    private final double[] coordinates;
+    private final int[] vertexes;
+    private final byte[] axis;
+
+
+    // Constructor Method
+    // Builds the tree over every vertex of the graph
+    // Efficiency of O(n log(n))
+    public KdTree(Graph indexedGraph) {
+        graph = indexedGraph;
+        coordinates = graph.getCoordinates();
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        vertexes = new int[numberOfVertexes];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            vertexes[v] = v;
+        }
+        axis = new byte[numberOfVertexes];
+        build(0, numberOfVertexes);
+    }
+
+
+    /**
+     * nearest Method
+     * Returns the index of the vertex closest to (x, y, z), the one listed first in the input on
+     * ties, or -1 if the graph has no vertexes
+     * Completed in O(log(n)) time on spatial inputs
+     */
+    public int nearest(double x, double y, double z) {
+        return nearest(x, y, z, new NearestQuery());
+    }
+
+    // Same as nearest(x, y, z), reusing the caller's query so snapping a point allocates nothing
+    public int nearest(double x, double y, double z, NearestQuery query) {
+        query.x = x;
+        query.y = y;
+        query.z = z;
+        query.bestSquared = Double.MAX_VALUE;
+        query.bestVertex = -1;
+        search(0, vertexes.length, query);
+        return query.bestVertex;
+    }
+
+    // Same as nearest(x, y, z), for a Location
+    public int nearest(Dijkstra.Location location) {
+        return nearest(location.getX(), location.getY(), location.getZ());
+    }
+
+
+    // Helper Methods
+
+    /**
+     * build Method
+     * Splits vertexes[low, high) at its median along its widest axis, and builds both halves
+     * Efficiency of O(n log(n)) expected
+     */
+    private void build(int low, int high) {
+        if (high - low <= LEAF_SIZE) {
+            return;
+        }
+
+        // Widest axis of the range
+        int splitAxis = 0;
+        double widest = -1;
+        for (int a = 0; a < 3; a++) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = low; i < high; i++) {
+                double value = coordinates[3 * vertexes[i] + a];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                splitAxis = a;
+            }
+        }
+
+        int mid = (low + high) >>> 1;
+        select(low, high, mid, splitAxis);
+        axis[mid] = (byte) splitAxis;
+        build(low, mid);
+        build(mid + 1, high);
+    }
+
+    /**
+     * select Method
+     * Quickselect: rearranges vertexes[low, high) so the vertex at position k is the one that
+     * belongs there in order of the given coordinate, with no larger coordinate before it and no
+     * smaller one after it
+     * Efficiency of O(high - low) expected
+     */
+    private void select(int low, int high, int k, int a) {
+        int left = low;
+        int right = high - 1;
+        while (left < right) {
+            double pivot = coordinates[3 * vertexes[(left + right) >>> 1] + a];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinates[3 * vertexes[i] + a] < pivot) {
+                    i++;
+                }
+                while (coordinates[3 * vertexes[j] + a] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = vertexes[i];
+                    vertexes[i] = vertexes[j];
+                    vertexes[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            }
+            else if (k >= i) {
+                left = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * search Method
+     * Looks for a vertex closer to the query's point than its best one in vertexes[low, high),
+     * recording it in the query
+     */
+    private void search(int low, int high, NearestQuery query) {
+        if (high - low <= LEAF_SIZE) {
+            for (int i = low; i < high; i++) {
+                consider(vertexes[i], query);
+            }
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        consider(vertexes[mid], query);
+
+        // The side of the splitting plane the point is on first, the other side only if the
+        // plane is no farther than the best vertex so far
+        int a = axis[mid];
+        double pointValue = (a == 0) ? query.x : (a == 1) ? query.y : query.z;
+        double offset = pointValue - coordinates[3 * vertexes[mid] + a];
+        if (offset < 0) {
+            search(low, mid, query);
+            if (offset * offset <= query.bestSquared) {
+                search(mid + 1, high, query);
+            }
+        }
+        else {
+            search(mid + 1, high, query);
+            if (offset * offset <= query.bestSquared) {
+                search(low, mid, query);
+            }
+        }
+    }
+
+    // Records vertex in the query if it is closer to the point, or as close and listed earlier in
+    // the input
+    private void consider(int vertex, NearestQuery query) {
+        double dx = coordinates[3 * vertex] - query.x;
+        double dy = coordinates[3 * vertex + 1] - query.y;
+        double dz = coordinates[3 * vertex + 2] - query.z;
+        double squared = dx * dx + dy * dy + dz * dz;
+        if (squared < query.bestSquared || (squared == query.bestSquared
+                && (query.bestVertex < 0 || graph.getInputIndex(vertex) < graph.getInputIndex(query.bestVertex)))) {
+            query.bestSquared = squared;
+            query.bestVertex = vertex;
+        }
+    }
+
+
+    // Additional Classes
+
+    /**
+     * NearestQuery Class
+     * The point being snapped and the best vertex found for it so far, filled in by nearest().
+     * A caller that snaps many points keeps one and passes it to every call, so the search
+     * allocates nothing.  A query must not be shared between threads, while the tree can be.
+     * Fields:
+     *      x, y, z : the point
+     *      bestSquared : squared distance from the point to bestVertex
+     *      bestVertex : index of the closest vertex found so far, -1 before any
+     */
+    public static class NearestQuery {
+        // Fields
+        private double x;
+        private double y;
+        private double z;
+        private double bestSquared;
+        private int bestVertex;
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.*;
+
+/**
+ * Landmarks Class
+ *
+ * Precomputed distances to and from a few landmark vertexes, used as the A* lower bound of the
+ * ALT search (A*, Landmarks, Triangle inequality, see ShortestPathSearch.alt()).  For a landmark L
+ * and any vertexes v and t, the triangle inequality gives two lower bounds on the distance d(v, t):
+ *      d(L, t) - d(L, v)       (from the distances out of L)
+ *      d(v, L) - d(t, L)       (from the distances into L)
+ * The largest of these over all landmarks is the lower bound.  Unlike the straight-line distance,
+ * it follows the actual roads of the graph, so it stays tight when the shortest path has to go
+ * around an obstacle, and the search expands far fewer vertexes there.
+ *
+ * Landmarks are picked by farthest-point selection: the first is the vertex farthest from vertex 1,
+ * and each next one is the vertex farthest from all landmarks picked so far, so they end up spread
+ * around the edge of the graph where they give the best bounds.
+ * Preprocessing runs two full Dijkstra searches per landmark (forward over the out-edges, backward
+ * over the in-edges), so it takes O(k m log(n)) time, far less than a contraction hierarchy.
+ *
+ * Distances are stored as float to halve the tables.  A float keeps 24 bits of the distance, so a
+ * stored distance can be off by 2^-24 of its size.  Each bound is lowered by FLOAT_ERROR (twice
+ * that) of the two distances it is made of, so it never overestimates, and the search still finds
+ * the exact shortest path.  A vertex that cannot reach (or be reached from) a landmark stores
+ * infinity, and the bounds that would need that distance are skipped.
+ * For complexity arguments, n = number of vertexes, while m = edges, and k = landmarks.
+ *
+ * Fields:
+ *      numberOfLandmarks : k
+ *      landmarks : vertex index of each landmark
+ *      fromLandmark : d(L, v) for every vertex v and landmark L, at v * k + L, length kn
+ *      toLandmark : d(v, L) for every vertex v and landmark L, at v * k + L, length kn
+ * The tables are laid out vertex by vertex, so all k distances of a vertex share a cache line.
+ */
+public class Landmarks {
+    // Relative margin taken off each bound for the float tables, 2^-23
+    public static final double FLOAT_ERROR = 1.0 / (1 << 23);
+
+    // Fields
+    private final int numberOfLandmarks;
+    private final int[] landmarks;
+    private final float[] fromLandmark;
+    private final float[] toLandmark;
+
+
+    // Constructor Method, see build()
+    private Landmarks(int[] landmarkVertexes, float[] fromTable, float[] toTable) {
+        numberOfLandmarks = landmarkVertexes.length;
+        landmarks = landmarkVertexes;
+        fromLandmark = fromTable;
+        toLandmark = toTable;
+    }
+
+
+    /**
+     * build Method
+     * Picks count landmarks by farthest-point selection, and stores the distances from and to
+     * each of them.  The forward search from each landmark is also the one that picks the next
+     * landmark, so no search is run twice.  A graph with fewer than count vertexes uses them all.
+     * Completed in O(k m log(n)) time
+     */
+    public static Landmarks build(Graph graph, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of landmarks must be at least 1, was " + count);
+        }
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        count = Math.min(count, numberOfVertexes);
+        int[] landmarkVertexes = new int[count];
+        float[] fromTable = new float[count * numberOfVertexes];
+        float[] toTable = new float[count * numberOfVertexes];
+
+        double[] distance = new double[numberOfVertexes];
+        IndexedHeap heap = new IndexedHeap(distance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+
+        // Distance from each vertex to the nearest landmark picked so far, MAX if no landmark
+        // reaches it yet
+        double[] nearestLandmark = new double[numberOfVertexes];
+
+        // The first landmark is the vertex farthest from vertex 1
+        fullSearch(graph, graph.getIndex(0), false, distance, heap);
+        Arrays.fill(nearestLandmark, Double.MAX_VALUE);
+        int nextLandmark = farthestVertex(distance, nearestLandmark);
+
+        for (int i = 0; i < count; i++) {
+            landmarkVertexes[i] = nextLandmark;
+
+            // Distances into the landmark, over the in-edges
+            fullSearch(graph, nextLandmark, true, distance, heap);
+            storeColumn(distance, toTable, i, count);
+
+            // Distances out of the landmark, which also move the farthest vertex
+            fullSearch(graph, nextLandmark, false, distance, heap);
+            storeColumn(distance, fromTable, i, count);
+            for (int v = 0; v < numberOfVertexes; v++) {
+                nearestLandmark[v] = Math.min(nearestLandmark[v], distance[v]);
+            }
+            nextLandmark = farthestVertex(nearestLandmark, nearestLandmark);
+        }
+        return new Landmarks(landmarkVertexes, fromTable, toTable);
+    }
+
+
+    /**
+     * lowerBound Method
+     * Returns a lower bound on the distance from vertex to target, the largest triangle
+     * inequality bound over all landmarks, or 0 if none applies
+     * Completed in O(k) time
+     */
+    public double lowerBound(int vertex, int target) {
+        int vertexRow = vertex * numberOfLandmarks;
+        int targetRow = target * numberOfLandmarks;
+        double best = 0;
+        for (int i = 0; i < numberOfLandmarks; i++) {
+            // d(L, t) - d(L, v), and d(v, L) - d(t, L), each lowered by the float error
+            // An infinite distance makes the bound infinite or NaN, neither of which is used
+            double fromVertex = fromLandmark[vertexRow + i];
+            double fromTarget = fromLandmark[targetRow + i];
+            double bound = fromTarget - fromVertex - (fromTarget + fromVertex) * FLOAT_ERROR;
+            if (bound > best && bound < Double.POSITIVE_INFINITY) {
+                best = bound;
+            }
+
+            double toVertex = toLandmark[vertexRow + i];
+            double toTarget = toLandmark[targetRow + i];
+            bound = toVertex - toTarget - (toVertex + toTarget) * FLOAT_ERROR;
+            if (bound > best && bound < Double.POSITIVE_INFINITY) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfLandmarks() {
+        return numberOfLandmarks;
+    }
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+
+    // Helper Methods
+
+    /**
+     * fullSearch Method
+     * Plain Dijkstra from source to every vertex, over the out-edges, or over the in-edges if
+     * backward is set (giving distances into source).  Unreached vertexes are left at MAX.
+     * Completed in O(m log(n)) time
+     */
+    private static void fullSearch(Graph graph, int source, boolean backward, double[] distance, IndexedHeap heap) {
+        int[] offsets = backward ? graph.getReverseOffsets() : graph.getOffsets();
+        int[] neighbors = backward ? graph.getReverseSources() : graph.getTargets();
+
+        Arrays.fill(distance, Double.MAX_VALUE);
+        distance[source] = 0;
+        heap.add(source);
+
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = neighbors[edge];
+                double weight = backward ? graph.getReverseEdgeWeight(currentIndex, edge) : graph.getEdgeWeight(currentIndex, edge);
+                double newDistance = distance[currentIndex] + weight;
+                if (newDistance < distance[neighborIndex]) {
+                    distance[neighborIndex] = newDistance;
+                    heap.addOrDecreaseKey(neighborIndex);
+                }
+            }
+        }
+    }
+
+    // Copies one landmark's distances into column i of a table, unreached vertexes as infinity
+    private static void storeColumn(double[] distance, float[] table, int i, int count) {
+        for (int v = 0; v < distance.length; v++) {
+            table[v * count + i] = (distance[v] == Double.MAX_VALUE) ? Float.POSITIVE_INFINITY : (float) distance[v];
+        }
+    }
+
+    /**
+     * farthestVertex Method
+     * Returns the vertex with the largest distance, counting a distance of MAX (unreached) as the
+     * farthest of all.  Vertexes are only considered if their entry in nearest is not 0, which
+     * keeps landmarks already picked from being picked again.
+     */
+    private static int farthestVertex(double[] distance, double[] nearest) {
+        int farthest = 0;
+        double farthestDistance = -1;
+        for (int v = 0; v < distance.length; v++) {
+            if (distance[v] > farthestDistance && nearest[v] != 0) {
+                farthest = v;
+                farthestDistance = distance[v];
+            }
+        }
+        return farthest;
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * NearestFacilities Class
+ *
+ * The nearest facility of every vertex, for a set of facility vertexes: the partition of the
+ * graph into the catchment of each facility (its graph Voronoi cell).  Instead of one search per
+ * facility, a single Dijkstra search starts with every facility in the heap at distance 0, and
+ * each vertex inherits the owner of the vertex it was reached from.  The first time a vertex is
+ * removed from the heap its distance is the smallest distance from any facility, so the whole
+ * partition takes one O(m log(n)) pass however many facilities there are.
+ * Each distance is the same number a single search from the owning facility finds, since the
+ * search adds up the same edges in the same order.
+ *
+ * Ties between facilities at exactly the same distance go to the one listed first: a relaxation
+ * that matches a vertex's distance still hands the vertex over if it comes from an earlier facility.
+ * (With positive edge weights the vertex has not been expanded yet at that point, so its own
+ * catchment follows it.)
+ *
+ * Facility File Format:
+ *      Any number of vertex labels, 1 <= label <= N, separated by any whitespace
+ * Output Format (see write()):
+ *      One line per vertex, in input order: the label of its nearest facility and the distance to
+ *      it.  A vertex no facility can reach gets facility 0 and distance Double.MAX_VALUE.
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ *
+ * Fields:
+ *      facilities : vertex index of each facility, in the order given
+ *      owner : the number of each vertex's nearest facility (its position in facilities), -1 if
+ *              no facility reaches the vertex
+ *      distance : distance from each vertex's nearest facility, MAX if no facility reaches it
+ *      expandedCount : vertexes removed from the heap by the search
+ */
+public class NearestFacilities {
+    // Fields
+    private final int[] facilities;
+    private final int[] owner;
+    private final double[] distance;
+    private final int expandedCount;
+
+
+    // Constructor Method, see compute()
+    private NearestFacilities(int[] facilityVertexes, int[] vertexOwner, double[] vertexDistance, int expanded) {
+        facilities = facilityVertexes;
+        owner = vertexOwner;
+        distance = vertexDistance;
+        expandedCount = expanded;
+    }
+
+
+    /**
+     * compute Method
+     * Runs the multi-source search from every facility at once and returns the partition
+     * Completed in O(m log(n)) time
+     */
+    public static NearestFacilities compute(Graph graph, int[] facilities) {
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        int[] owner = new int[numberOfVertexes];
+        double[] distance = new double[numberOfVertexes];
+        Arrays.fill(owner, -1);
+        Arrays.fill(distance, Double.MAX_VALUE);
+        IndexedHeap heap = new IndexedHeap(distance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+
+        // Every facility starts at distance 0, owned by itself, or by the first listing of it
+        for (int i = 0; i < facilities.length; i++) {
+            if (owner[facilities[i]] < 0) {
+                owner[facilities[i]] = i;
+                distance[facilities[i]] = 0;
+                heap.add(facilities[i]);
+            }
+        }
+
+        int expanded = 0;
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            expanded++;
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+                if (newDistance < distance[neighborIndex]) {
+                    distance[neighborIndex] = newDistance;
+                    owner[neighborIndex] = owner[currentIndex];
+                    heap.addOrDecreaseKey(neighborIndex);
+                }
+                else if (newDistance == distance[neighborIndex] && owner[currentIndex] < owner[neighborIndex]) {
+                    // Same distance from an earlier facility, the key does not change
+                    owner[neighborIndex] = owner[currentIndex];
+                }
+            }
+        }
+        return new NearestFacilities(facilities, owner, distance, expanded);
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfFacilities() {
+        return facilities.length;
+    }
+    public int getFacility(int i) {
+        return facilities[i];
+    }
+    public int getOwner(int vertex) {
+        return owner[vertex];
+    }
+    public double getDistance(int vertex) {
+        return distance[vertex];
+    }
+    public int[] getOwners() {
+        return owner;
+    }
+    public double[] getDistances() {
+        return distance;
+    }
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * getCatchmentSizes Method
+     * Returns the number of vertexes each facility is nearest to, in facility order
+     * Completed in O(n) time
+     */
+    public int[] getCatchmentSizes() {
+        int[] sizes = new int[facilities.length];
+        for (int facility : owner) {
+            if (facility >= 0) {
+                sizes[facility]++;
+            }
+        }
+        return sizes;
+    }
+
+
+    /**
+     * readFacilityFile Method
+     * Reads a facility file (see the format above) and returns the facilities as vertex indexes
+     * of the graph
+     */
+    public static int[] readFacilityFile(File facilityFile, Graph graph) throws FileNotFoundException {
+        Scanner facilityScanner = new Scanner(facilityFile);
+        int[] facilities = new int[16];
+        int count = 0;
+        try {
+            while (facilityScanner.hasNextInt()) {
+                int label = facilityScanner.nextInt();
+                if (label < 1 || label > graph.getNumberOfVertexes()) {
+                    throw new IllegalArgumentException("Facility " + (count + 1) + " is vertex " + label
+                            + ", expected 1 to " + graph.getNumberOfVertexes());
+                }
+                if (count == facilities.length) {
+                    facilities = Arrays.copyOf(facilities, 2 * count);
+                }
+                facilities[count++] = graph.getIndex(label - 1);
+            }
+        }
+        finally {
+            facilityScanner.close();
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException(facilityFile + " lists no facilities");
+        }
+        return Arrays.copyOf(facilities, count);
+    }
+
+
+    /**
+     * write Method
+     * Writes one line per vertex, in input order: its nearest facility's label and the distance,
+     * or facility 0 if no facility reaches it
+     * Completed in O(n) time
+     */
+    public void write(Graph graph, PrintWriter writer) {
+        for (int label = 0; label < graph.getNumberOfVertexes(); label++) {
+            int vertex = graph.getIndex(label);
+            int facility = (owner[vertex] >= 0) ? graph.getInputIndex(facilities[owner[vertex]]) + 1 : 0;
+            writer.println(facility + " " + distance[vertex]);
+        }
+    }
+}
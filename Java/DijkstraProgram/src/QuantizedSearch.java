@@ -0,0 +1,189 @@
+import java.util.*;
+
+/**
+ * QuantizedSearch Class
+ *
+ * Dijkstra's algorithm on fixed-point distances, with a RadixHeap as the frontier instead of
+ * IndexedHeap.  The input coordinates are integers in [-1,000,000, 1,000,000], so every distance
+ * is bounded, and measured in units of a chosen resolution it fits comfortably in a long.  Each
+ * edge weight is rounded down to a whole number of units once, when the search is built, and the
+ * search then only adds longs, which the radix heap can order with a few bit operations instead
+ * of the comparisons of a heap.
+ *
+ * Error Bound:
+ *      Rounding down keeps each quantized weight within one unit below the true weight, so for
+ *      any path P with h edges,
+ *          true length - h * resolution < quantized length * resolution <= true length
+ *      The quantized distance D found by the search is at most the quantized length of the true
+ *      shortest path, so D * resolution is a lower bound on the shortest distance.  The path the
+ *      search found is a real path, so its true length (added up in double, in path order, like
+ *      the exact search does) is an upper bound.  The shortest distance therefore lies in
+ *          [D * resolution, returned length],
+ *      and the returned length is above it by less than h * resolution, h = edges on the found path.
+ *      When the found path is also an exact shortest path, the returned length is the same number
+ *      the exact search prints.  (Up to the double rounding of weight / resolution itself.)
+ * For complexity arguments, n = number of vertexes, while m = edges, and C = largest distance in
+ * units.  A search takes O(m + n log(C)) time.
+ *
+ * Fields:
+ *      graph : the graph searched
+ *      resolution : the length of one unit
+ *      quantizedWeights : each edge's weight in whole units, rounded down, aligned with the edge list
+ *      distance, stamp, generation, heap : search state, reset in O(1) by moving to a new generation
+ *      predecessor : the vertex each vertex was reached from, -1 at the source
+ *      pathVertexes : the path found by the last search, pathLength vertexes from the source
+ *      quantizedDistance : D, the distance in units found by the last search, -1 if unreachable
+ *      expandedCount : vertexes removed from the heap by the last search
+ */
+public class QuantizedSearch {
+    // Fields
+    private final Graph graph;
+    private final double resolution;
+    private final long[] quantizedWeights;
+    private final long[] distance;
+    private final int[] stamp;
+    private final int[] predecessor;
+    private final RadixHeap heap;
+    private int generation;
+    private int[] pathVertexes = new int[64];
+    private int pathLength;
+    private long quantizedDistance;
+    private int expandedCount;
+
+
+    // Constructor Method
+    // Efficiency of O(m), to quantize the edge weights
+    public QuantizedSearch(Graph searchGraph, double unit) {
+        if (!(unit > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive, was " + unit);
+        }
+        graph = searchGraph;
+        resolution = unit;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        int[] offsets = graph.getOffsets();
+
+        // A shortest path has fewer than n edges, so (n - 1) times the largest weight bounds every
+        // distance, and must fit in a long
+        quantizedWeights = new long[graph.getNumberOfEdges()];
+        long largestWeight = 0;
+        for (int v = 0; v < numberOfVertexes; v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                double units = Math.floor(graph.getEdgeWeight(v, edge) / resolution);
+                if (units >= Long.MAX_VALUE) {
+                    throw new IllegalArgumentException("Resolution " + resolution + " is too fine for this graph");
+                }
+                quantizedWeights[edge] = (long) units;
+                largestWeight = Math.max(largestWeight, quantizedWeights[edge]);
+            }
+        }
+        if (numberOfVertexes > 1 && largestWeight > Long.MAX_VALUE / (numberOfVertexes - 1)) {
+            throw new IllegalArgumentException("Resolution " + resolution + " is too fine for this graph");
+        }
+
+        distance = new long[numberOfVertexes];
+        stamp = new int[numberOfVertexes];
+        predecessor = new int[numberOfVertexes];
+        heap = new RadixHeap(distance, numberOfVertexes);
+        generation = 0;
+    }
+
+
+    /**
+     * dijkstra Method
+     * Searches from source until target is removed from the heap, and returns the true length of
+     * the path found (see the error bound above), or MAX if the target cannot be reached
+     * Completed in O(m + n log(C)) time
+     */
+    public double dijkstra(int source, int target) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        // Clears the previous search
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        heap.clear();
+        expandedCount = 0;
+        pathLength = 0;
+        quantizedDistance = -1;
+
+        setDistance(source, 0);
+        predecessor[source] = -1;
+        heap.add(source);
+
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            expandedCount++;
+            if (currentIndex == target) {
+                break;
+            }
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                long newDistance = distance[currentIndex] + quantizedWeights[edge];
+                if (stamp[neighborIndex] != generation || newDistance < distance[neighborIndex]) {
+                    setDistance(neighborIndex, newDistance);
+                    predecessor[neighborIndex] = currentIndex;
+                    heap.addOrDecreaseKey(neighborIndex);
+                }
+            }
+        }
+
+        if (stamp[target] != generation) {
+            return Double.MAX_VALUE;
+        }
+        quantizedDistance = distance[target];
+        return pathLengthTo(target);
+    }
+
+
+    // Getters for the results of the last search
+    public double getResolution() {
+        return resolution;
+    }
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+    // Number of edges on the path found, 0 if the target was not reached
+    public int getHops() {
+        return Math.max(pathLength - 1, 0);
+    }
+    // D * resolution, a lower bound on the true shortest distance, MAX if the target was not reached
+    public double getLowerBound() {
+        return (quantizedDistance < 0) ? Double.MAX_VALUE : quantizedDistance * resolution;
+    }
+    // Most the returned length can exceed the true shortest distance by, hops * resolution
+    public double getErrorBound() {
+        return getHops() * resolution;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * pathLengthTo Method
+     * Lists the path from the source to target in pathVertexes by following predecessors, and
+     * adds up its true edge lengths in path order
+     * Efficiency of O(path length)
+     */
+    private double pathLengthTo(int target) {
+        for (int vertex = target; vertex >= 0; vertex = predecessor[vertex]) {
+            if (pathLength == pathVertexes.length) {
+                pathVertexes = Arrays.copyOf(pathVertexes, 2 * pathLength);
+            }
+            pathVertexes[pathLength++] = vertex;
+        }
+        double length = 0;
+        for (int i = pathLength - 1; i > 0; i--) {
+            length += graph.getDistanceBetween(pathVertexes[i], pathVertexes[i - 1]);
+        }
+        return length;
+    }
+
+    // Records a distance for the current search
+    private void setDistance(int vertex, long newDistance) {
+        distance[vertex] = newDistance;
+        stamp[vertex] = generation;
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.*;
+
+/**
+ * RadiusSearch Class
+ *
+ * Every vertex within a given distance of a source: the ball (isochrone) of radius r around it,
+ * with the same Euclidean edge weights as every other search here.  It is Dijkstra's algorithm
+ * with a cutoff.  A relaxation that would give a vertex a distance above r is dropped, so no key
+ * larger than r ever enters the heap, and the search ends as soon as the heap runs empty, which is
+ * exactly when its smallest key would exceed r.  Only the ball and the edges leaving it are ever
+ * looked at, however large the graph is.
+ * Vertexes are settled in order of distance, and each one is streamed out as it is settled, so
+ * results start arriving before the search is done and nothing is collected in between.  Every
+ * distance is the same number a full Dijkstra search from the source finds, since a vertex's
+ * shortest path only passes through vertexes at a smaller distance, all of them inside the ball.
+ *
+ * Like ShortestPathSearch, one object can run any number of searches on the same graph, and
+ * starts each one in O(1) with a new generation number instead of clearing its arrays (see
+ * StampedDistances).  An object is not thread safe.
+ *
+ * Output Format (see within()):
+ *      One line per vertex within the radius, in the order they are settled (nondecreasing
+ *      distance, the source first): its label and its distance from the source
+ * For complexity arguments, n = number of vertexes, while m = edges, and n_r, m_r = vertexes
+ * within the radius and their out-edges.  A search takes O(m_r log(n_r)) time.
+ *
+ * Fields:
+ *      graph : the graph being searched
+ *      distances : shortest known distance from the source, stamped per search
+ *      distance : the array of distances, for reading a vertex already reached
+ *      heap : the frontier, an indexed d-ary heap over the distance array
+ *      expandedCount : number of vertexes settled by the last search, those within the radius
+ */
+public class RadiusSearch {
+    // Fields
+    private final Graph graph;
+    private final StampedDistances distances;
+    private final double[] distance;
+    private final IndexedHeap heap;
+    private int expandedCount;
+
+
+    // Constructor Method
+    // Efficiency of O(n)
+    public RadiusSearch(Graph searchGraph) {
+        graph = searchGraph;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        distances = new StampedDistances(numberOfVertexes);
+        distance = distances.getValues();
+        heap = new IndexedHeap(distance, numberOfVertexes, Dijkstra.HEAP_ARITY);
+    }
+
+
+    /**
+     * within Method
+     * Settles every vertex at distance at most radius from source (a vertex index), writing each
+     * one's label and distance to writer as it is settled if writer is not null, and returns how
+     * many there are
+     * Completed in O(m_r log(n_r)) time
+     */
+    public int within(int source, double radius, PrintWriter writer) {
+        if (radius < 0 || Double.isNaN(radius)) {
+            throw new IllegalArgumentException("Radius " + radius + " is not a distance, expected 0 or more");
+        }
+        startSearch();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        distances.set(source, 0);
+        heap.add(source);
+        while (!heap.isEmpty()) {
+            int currentIndex = heap.poll();
+            expandedCount++;
+            if (writer != null) {
+                writer.println((graph.getInputIndex(currentIndex) + 1) + " " + distance[currentIndex]);
+            }
+
+            // Neighbors beyond the radius are never added, so the heap only ever holds the ball
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+                if (newDistance > radius) {
+                    continue;
+                }
+                if (!distances.isSet(neighborIndex)) {
+                    distances.set(neighborIndex, newDistance);
+                    heap.add(neighborIndex);
+                }
+                else if (newDistance < distance[neighborIndex]) {
+                    distances.set(neighborIndex, newDistance);
+                    heap.decreaseKey(neighborIndex);
+                }
+            }
+        }
+        return expandedCount;
+    }
+
+
+    // Getters for the fields
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    // Distance of vertex from the source of the last search, MAX if it is outside the radius
+    public double getDistance(int vertex) {
+        return distances.get(vertex);
+    }
+
+
+    // Helper Methods
+
+    // Moves to a new generation (see StampedDistances) and empties the heap
+    private void startSearch() {
+        distances.nextGeneration();
+        heap.clear();
+        expandedCount = 0;
+    }
+}
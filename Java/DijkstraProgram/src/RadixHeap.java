@@ -0,0 +1,206 @@
+import java.util.*;
+
+/**
+ * RadixHeap Class
+ *
+ * An int-indexed monotone priority queue over non-negative long keys, the radix heap of Ahuja,
+ * Mehlhorn, Orlin and Tarjan.  Like IndexedHeap it holds vertex indexes ordered by a key array
+ * owned by the caller, but it only works when no key is ever lower than the last key removed,
+ * which always holds in Dijkstra's algorithm with non-negative integer edge weights.
+ *
+ * The queue remembers the last key removed (last), and keeps each index in the bucket given by
+ * the highest bit in which its key differs from last:
+ *      bucket 0 : key == last
+ *      bucket b : highest differing bit is b - 1, so last < key < last + 2^b
+ * Removing the minimum takes it from bucket 0.  When bucket 0 is empty, the lowest non-empty
+ * bucket is scanned for its minimum key, which becomes last, and every index in that bucket moves
+ * to a lower bucket (they all share the bits above b - 1 with the new last).  An index can only
+ * move down, at most 64 times, so for keys spread over a range C every operation takes amortized
+ * O(log(C)) time, and scanning for the lowest non-empty bucket costs O(1) per operation on top.
+ * Buckets are doubly linked lists threaded through int arrays, so a lowered key is moved to its
+ * new bucket in O(1), and nothing is allocated after construction.
+ *
+ * Note: as with IndexedHeap, the caller must write the new key into the key array BEFORE calling
+ * add() or decreaseKey(), and a key must never be set below the last key removed
+ *
+ * Fields:
+ *      keys : the key of each index, shared with the caller
+ *      first : the first index in each bucket, -1 if the bucket is empty
+ *      next, previous : each index's neighbors in its bucket's list, -1 at the ends
+ *      bucket : the bucket each index is in, or -1 if the index is not in the queue
+ *      last : the last key removed, 0 for a new or cleared queue
+ *      size : the number of indexes currently in the queue
+ */
+public class RadixHeap {
+    // Bucket 0 plus one bucket per bit of a long
+    private static final int NUMBER_OF_BUCKETS = 65;
+
+    // Fields
+    private final long[] keys;
+    private final int[] first;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] bucket;
+    private long last;
+    private int size;
+
+
+    // Constructor Method
+    public RadixHeap(long[] keyArray, int capacity) {
+        keys = keyArray;
+        first = new int[NUMBER_OF_BUCKETS];
+        Arrays.fill(first, -1);
+        next = new int[capacity];
+        previous = new int[capacity];
+        bucket = new int[capacity];
+        Arrays.fill(bucket, -1);
+        last = 0;
+        size = 0;
+    }
+
+
+    // Size and membership
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public boolean contains(int index) {
+        return bucket[index] >= 0;
+    }
+    public long getLastKey() {
+        return last;
+    }
+
+
+    /**
+     * add Method
+     * Inserts an index that is not currently in the queue, ordered by keys[index], which must
+     * be at least the last key removed
+     * Completed in O(1) time
+     */
+    public void add(int index) {
+        if (keys[index] < last) {
+            throw new IllegalArgumentException("Key " + keys[index] + " is below the last key removed, " + last);
+        }
+        link(index, bucketFor(keys[index]));
+        size++;
+    }
+
+    /**
+     * decreaseKey Method
+     * Moves an index to the bucket of its lowered key, which must still be at least the last key
+     * removed
+     * Completed in O(1) time
+     */
+    public void decreaseKey(int index) {
+        if (keys[index] < last) {
+            throw new IllegalArgumentException("Key " + keys[index] + " is below the last key removed, " + last);
+        }
+        int newBucket = bucketFor(keys[index]);
+        if (newBucket != bucket[index]) {
+            unlink(index);
+            link(index, newBucket);
+        }
+    }
+
+    /**
+     * addOrDecreaseKey Method
+     * Convenience for relaxation: inserts the index if it is not in the queue yet, otherwise
+     * moves it to match its lowered key
+     */
+    public void addOrDecreaseKey(int index) {
+        if (bucket[index] < 0) {
+            add(index);
+        }
+        else {
+            decreaseKey(index);
+        }
+    }
+
+
+    /**
+     * poll Method
+     * Removes and returns an index with the smallest key.  If no key equals the last key removed,
+     * the lowest non-empty bucket is emptied into the buckets below it first.
+     * Amortized O(log(C)) time
+     */
+    public int poll() {
+        if (first[0] < 0) {
+            // Lowest non-empty bucket, and its smallest key as the new last
+            int lowest = 1;
+            while (first[lowest] < 0) {
+                lowest++;
+            }
+            long minimum = Long.MAX_VALUE;
+            for (int index = first[lowest]; index >= 0; index = next[index]) {
+                minimum = Math.min(minimum, keys[index]);
+            }
+            last = minimum;
+
+            // Every index in the bucket now lands in a lower one, at least one of them in bucket 0
+            int index = first[lowest];
+            first[lowest] = -1;
+            while (index >= 0) {
+                int following = next[index];
+                link(index, bucketFor(keys[index]));
+                index = following;
+            }
+        }
+
+        int minimum = first[0];
+        unlink(minimum);
+        bucket[minimum] = -1;
+        size--;
+        return minimum;
+    }
+
+    /**
+     * clear Method
+     * Empties the queue and resets the last key removed to 0, so it can be reused for another
+     * search.  Only the indexes still in the queue are touched, so this takes O(size) time
+     */
+    public void clear() {
+        for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+            for (int index = first[b]; index >= 0; index = next[index]) {
+                bucket[index] = -1;
+            }
+            first[b] = -1;
+        }
+        last = 0;
+        size = 0;
+    }
+
+
+    // Helper Methods
+
+    // Bucket of a key: 0 if it equals last, otherwise one more than the highest bit it differs in
+    private int bucketFor(long key) {
+        return (key == last) ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    // Puts an index at the front of a bucket's list
+    private void link(int index, int b) {
+        bucket[index] = b;
+        previous[index] = -1;
+        next[index] = first[b];
+        if (first[b] >= 0) {
+            previous[first[b]] = index;
+        }
+        first[b] = index;
+    }
+
+    // Takes an index out of its bucket's list, leaving its bucket field for the caller to reset
+    private void unlink(int index) {
+        if (previous[index] >= 0) {
+            next[previous[index]] = next[index];
+        }
+        else {
+            first[bucket[index]] = next[index];
+        }
+        if (next[index] >= 0) {
+            previous[next[index]] = previous[index];
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.*;
+
+/**
+ * Reachability Class
+ *
+ * The strongly connected components of a Graph, and from them the part of the graph a search from
+ * a source to a target can ever use.  A vertex can only be on a path from source to target if the
+ * source reaches it and it reaches the target; every other vertex can be dropped before the search
+ * (see Graph.restrictedTo()), and if the source does not reach the target at all, no search is
+ * needed to say so.
+ *
+ * Components are found with Tarjan's algorithm, written with an explicit stack of (vertex, next
+ * edge) frames instead of recursion, so a path of a million vertexes cannot overflow the call
+ * stack.  Tarjan's algorithm finishes a component only after every component it has an edge into,
+ * so components are numbered in reverse topological order: every edge goes from a component to one
+ * with the same or a lower number.  The condensation (one node per component) is therefore swept
+ * in number order, with no further sorting:
+ *      forward, from the source's component downward, marking the components the source reaches
+ *      backward, from the target's component upward, marking the components that reach the target
+ * Both sweeps look at each edge once.
+ * For complexity arguments, n = number of vertexes, while m = edges.  Building takes O(n + m) time
+ * and each relevantVertexes() call O(n + m).
+ *
+ * Fields:
+ *      graph : the graph the components are of
+ *      component : the component of each vertex, in reverse topological order
+ *      numberOfComponents : number of components
+ *      componentOffsets, componentVertexes : the vertexes of each component, as CSR lists (see Graph)
+ */
+public class Reachability {
+    // Fields
+    private final Graph graph;
+    private final int[] component;
+    private final int numberOfComponents;
+    private final int[] componentOffsets;
+    private final int[] componentVertexes;
+
+
+    // Constructor Method, see build()
+    private Reachability(Graph componentGraph, int[] vertexComponent, int components) {
+        graph = componentGraph;
+        component = vertexComponent;
+        numberOfComponents = components;
+
+        // Groups the vertexes by component
+        componentOffsets = new int[numberOfComponents + 1];
+        for (int c : component) {
+            componentOffsets[c + 1]++;
+        }
+        for (int c = 0; c < numberOfComponents; c++) {
+            componentOffsets[c + 1] += componentOffsets[c];
+        }
+        componentVertexes = new int[component.length];
+        int[] nextSlot = Arrays.copyOf(componentOffsets, numberOfComponents);
+        for (int v = 0; v < component.length; v++) {
+            componentVertexes[nextSlot[component[v]]++] = v;
+        }
+    }
+
+
+    /**
+     * build Method
+     * Finds the strongly connected components with an iterative Tarjan search
+     * Completed in O(n + m) time
+     */
+    public static Reachability build(Graph graph) {
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        // Discovery order and low link of each vertex, -1 until discovered
+        int[] order = new int[numberOfVertexes];
+        int[] low = new int[numberOfVertexes];
+        Arrays.fill(order, -1);
+
+        // Tarjan's stack of vertexes whose component is not finished yet
+        int[] open = new int[numberOfVertexes];
+        int openSize = 0;
+        boolean[] isOpen = new boolean[numberOfVertexes];
+
+        // Frames standing in for the recursion: the vertex and the next of its edges to follow
+        int[] frameVertex = new int[numberOfVertexes];
+        int[] frameEdge = new int[numberOfVertexes];
+
+        int[] component = new int[numberOfVertexes];
+        int components = 0;
+        int discovered = 0;
+
+        for (int root = 0; root < numberOfVertexes; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            frameVertex[0] = root;
+            frameEdge[0] = offsets[root];
+            order[root] = low[root] = discovered++;
+            open[openSize++] = root;
+            isOpen[root] = true;
+
+            while (depth >= 0) {
+                int v = frameVertex[depth];
+                if (frameEdge[depth] < offsets[v + 1]) {
+                    // Follows the next edge: descends into an undiscovered vertex, or lowers the
+                    // low link through an edge back into the open part of the search
+                    int w = targets[frameEdge[depth]++];
+                    if (order[w] < 0) {
+                        depth++;
+                        frameVertex[depth] = w;
+                        frameEdge[depth] = offsets[w];
+                        order[w] = low[w] = discovered++;
+                        open[openSize++] = w;
+                        isOpen[w] = true;
+                    }
+                    else if (isOpen[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                }
+                else {
+                    // All edges done: v closes a component if nothing below it reaches higher up
+                    if (low[v] == order[v]) {
+                        int w;
+                        do {
+                            w = open[--openSize];
+                            isOpen[w] = false;
+                            component[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+                    depth--;
+                    if (depth >= 0) {
+                        int parent = frameVertex[depth];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+        return new Reachability(graph, component, components);
+    }
+
+
+    /**
+     * relevantVertexes Method
+     * Marks every vertex that is on some path from source to target: reached from the source, and
+     * reaching the target.  If the source cannot reach the target, nothing is marked (so checking
+     * the mark of the target tells whether there is a path at all).
+     * Completed in O(n + m) time
+     */
+    public boolean[] relevantVertexes(int source, int target) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        boolean[] fromSource = new boolean[numberOfComponents];
+        boolean[] toTarget = new boolean[numberOfComponents];
+        boolean[] relevant = new boolean[component.length];
+
+        // Backward sweep: a component reaches the target if any of its edges leads to one that does.
+        // Those all have lower numbers, so are already decided
+        toTarget[component[target]] = true;
+        for (int c = component[target] + 1; c <= component[source]; c++) {
+            for (int i = componentOffsets[c]; i < componentOffsets[c + 1] && !toTarget[c]; i++) {
+                int v = componentVertexes[i];
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    if (toTarget[component[targets[edge]]]) {
+                        toTarget[c] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        if (!toTarget[component[source]]) {
+            return relevant;
+        }
+
+        // Forward sweep: only components between the two can be on a path
+        fromSource[component[source]] = true;
+        for (int c = component[source]; c >= component[target]; c--) {
+            if (!fromSource[c]) {
+                continue;
+            }
+            for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+                int v = componentVertexes[i];
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    fromSource[component[targets[edge]]] = true;
+                }
+            }
+        }
+
+        for (int v = 0; v < component.length; v++) {
+            relevant[v] = fromSource[component[v]] && toTarget[component[v]];
+        }
+        return relevant;
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfComponents() {
+        return numberOfComponents;
+    }
+    public int getComponent(int vertex) {
+        return component[vertex];
+    }
+    public int getComponentSize(int c) {
+        return componentOffsets[c + 1] - componentOffsets[c];
+    }
+}
@@ -0,0 +1,643 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * ShortestPathSearch Class
+ *
+ * Point-to-point shortest path searches over a Graph.  One object holds the distance array and
+ * the frontier heap for one search at a time, and can be reused for any number of searches on
+ * the same graph.  An object is not thread safe, parallel searches each use their own object
+ * (see BatchQueryEngine).
+ *
+ * Between searches the distance array is not cleared.  Instead each search gets a new generation
+ * number, and a vertex's entry only counts if its stamp matches the current generation (see
+ * StampedDistances), so starting a search costs O(1) plus clearing what was left in the heap,
+ * rather than O(n).
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ *
+ * Search Modes:
+ *      dijkstra : plain Dijkstra's algorithm, ordered by distance from the source
+ *      aStar : goal-directed search, ordered by distance from the source plus the straight-line
+ *              distance to the target.  Every edge weight is the Euclidean distance between its
+ *              endpoints, so the straight-line distance never overestimates the remaining path
+ *              (admissible) and changes by at most the edge weight across any edge (consistent).
+ *              The search leans toward the target and skips most vertexes behind the source.
+ *      alt : A* with the landmark lower bound (see Landmarks), or the straight-line distance if
+ *              that is larger.  The landmark bound follows the graph's edges instead of cutting
+ *              across, so it stays tight where the shortest path bends around an obstacle.  It is
+ *              admissible, but the margin kept for its float tables makes it not quite consistent,
+ *              so a vertex may occasionally be expanded more than once.
+ *      bidirectional : two Dijkstra searches, forward from the source over the out-edges and
+ *              backward from the target over the in-edges (the Graph's reverse index), taking
+ *              turns.  Each frontier only has to reach about halfway, so on large sparse graphs
+ *              the two balls together cover far less of the graph than one ball around the source.
+ *      contractionHierarchy : bidirectional search over a ContractionHierarchy built from the
+ *              same graph.  Both searches only follow edges that climb in rank, so each one
+ *              settles a small number of vertexes regardless of the distance between the ends.
+ * The one-directional modes stop as soon as the target is removed from the heap, since its
+ * distance is final at that point.  All modes run in O(m log(n)) time worst case (ALT up to the
+ * rare repeated expansions), A*, ALT and bidirectional usually expand far fewer vertexes, and the
+ * hierarchy query fewer still.
+ *
+ * Paths:
+ *      Every relaxation also records the vertex the new distance came from (predecessor), so
+ *      after any search the path itself can be listed with buildPath(), in O(path length) time,
+ *      into a buffer that is reused from one search to the next.  writePath() prints it, vertex
+ *      by vertex with the length of each hop.
+ *
+ * Fields:
+ *      graph : the graph being searched
+ *      distances : shortest known distance from the source, stamped per search
+ *      distance : the array of distances, for reading a vertex already reached
+ *      predecessor : vertex before each vertex on its best known path from the source, -1 for the
+ *                    source, only valid where distances is set
+ *      priority : heap key of each vertex, distance plus the heuristic in the A* modes
+ *      heap : the frontier, an indexed d-ary heap over the priority array
+ *      heapArity : d, for both heaps
+ *      backwardDistances, backwardDistance : shortest known distance to the target, for the
+ *                                            bidirectional mode, stamped per search like distances
+ *      backwardNext : next vertex on the best known path from each vertex to the target
+ *      backwardHeap : the backward frontier, an indexed d-ary heap over backwardDistance
+ *      hierarchy : contraction hierarchy of the graph, null if the search was made without one
+ *      landmarks : landmark distance tables of the graph, null if the search was made without them
+ *      parentEdge, backwardParentEdge : hierarchy edge each vertex was last reached by, in the
+ *                                       forward and backward hierarchy searches
+ *      unpacker : expands the hierarchy path found back into original edges
+ *      pathVertexes : buffer for the vertexes along the path found, filled by buildPath()
+ *      lastMode, lastSource, lastTarget : mode and ends of the last search
+ *      meetingFrom, meetingTo : edge joining the two halves of the last bidirectional path
+ *      meetingVertex : highest vertex of the last hierarchy path
+ *      expandedCount : number of vertexes removed from the heap(s) in the last search
+ * The backward arrays are only allocated the first time a two-sided search is run.
+ */
+public class ShortestPathSearch {
+    // Search modes, for callers that pick the mode at run time (see query())
+    public static final int DIJKSTRA = 0;
+    public static final int ASTAR = 1;
+    public static final int BIDIRECTIONAL = 2;
+    public static final int CONTRACTION_HIERARCHY = 3;
+    public static final int ALT = 4;
+
+    // Fields
+    private final Graph graph;
+    private final StampedDistances distances;
+    private final double[] distance;
+    private final int[] predecessor;
+    private final double[] priority;
+    private final IndexedHeap heap;
+    private final int heapArity;
+    private StampedDistances backwardDistances;
+    private double[] backwardDistance;
+    private int[] backwardNext;
+    private IndexedHeap backwardHeap;
+    private final ContractionHierarchy hierarchy;
+    private final Landmarks landmarks;
+    private int[] parentEdge;
+    private int[] backwardParentEdge;
+    private ContractionHierarchy.PathUnpacker unpacker;
+    private int[] pathVertexes;
+    private int lastMode;
+    private int lastSource;
+    private int lastTarget;
+    private int meetingFrom;
+    private int meetingTo;
+    private int meetingVertex;
+    private int expandedCount;
+
+
+    // Constructor Methods
+    public ShortestPathSearch(Graph searchGraph) {
+        this(searchGraph, null);
+    }
+
+    public ShortestPathSearch(Graph searchGraph, ContractionHierarchy graphHierarchy) {
+        this(searchGraph, graphHierarchy, null);
+    }
+
+    // The hierarchy and landmarks, if given, must have been built from searchGraph
+    public ShortestPathSearch(Graph searchGraph, ContractionHierarchy graphHierarchy, Landmarks graphLandmarks) {
+        this(searchGraph, graphHierarchy, graphLandmarks, Dijkstra.HEAP_ARITY);
+    }
+
+    // Also sets the number of children per node of the frontier heap (see IndexedHeap)
+    public ShortestPathSearch(Graph searchGraph, ContractionHierarchy graphHierarchy, Landmarks graphLandmarks,
+                              int arity) {
+        graph = searchGraph;
+        hierarchy = graphHierarchy;
+        landmarks = graphLandmarks;
+        int numberOfVertexes = graph.getNumberOfVertexes();
+        distances = new StampedDistances(numberOfVertexes);
+        distance = distances.getValues();
+        predecessor = new int[numberOfVertexes];
+        priority = new double[numberOfVertexes];
+        heapArity = arity;
+        heap = new IndexedHeap(priority, numberOfVertexes, heapArity);
+        if (hierarchy != null) {
+            parentEdge = new int[numberOfVertexes];
+            backwardParentEdge = new int[numberOfVertexes];
+            unpacker = new ContractionHierarchy.PathUnpacker(hierarchy);
+        }
+        pathVertexes = new int[64];
+        lastTarget = -1;
+    }
+
+
+    /**
+     * dijkstra Method
+     * Returns the shortest distance from source to target (vertex indexes), or MAX if the
+     * target cannot be reached
+     */
+    public double dijkstra(int source, int target) {
+        return oneDirectionalSearch(source, target, DIJKSTRA);
+    }
+
+    /**
+     * aStar Method
+     * Same result as dijkstra(), using the straight-line distance to the target as a lower bound
+     * on the remaining path
+     */
+    public double aStar(int source, int target) {
+        return oneDirectionalSearch(source, target, ASTAR);
+    }
+
+    /**
+     * alt Method
+     * Same result as dijkstra(), using the landmarks given to the constructor for the lower bound
+     * on the remaining path
+     */
+    public double alt(int source, int target) {
+        if (landmarks == null) {
+            throw new IllegalStateException("No landmarks were given for this search");
+        }
+        return oneDirectionalSearch(source, target, ALT);
+    }
+
+
+    /**
+     * query Method
+     * Runs the search mode given by one of the mode constants above
+     */
+    public double query(int searchMode, int source, int target) {
+        if (searchMode == ASTAR) {
+            return aStar(source, target);
+        }
+        if (searchMode == BIDIRECTIONAL) {
+            return bidirectional(source, target);
+        }
+        if (searchMode == CONTRACTION_HIERARCHY) {
+            return contractionHierarchy(source, target);
+        }
+        if (searchMode == ALT) {
+            return alt(source, target);
+        }
+        return dijkstra(source, target);
+    }
+
+
+    /**
+     * bidirectional Method
+     * Same result as dijkstra(), meeting in the middle.  The forward and backward frontiers take
+     * turns removing their closest vertex.  Whenever an edge joins a vertex reached from the
+     * source to one reached from the target, the length of that source-to-target path is checked
+     * against the best path found so far.  Once the smallest keys of the two heaps add up to at
+     * least the best path, no unfound path can be shorter, and the search stops.
+     * The distance returned is re-added along the best path in source-to-target order, so it
+     * matches dijkstra() to the last digit rather than only up to rounding.
+     */
+    public double bidirectional(int source, int target) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] reverseOffsets = graph.getReverseOffsets();
+        int[] reverseSources = graph.getReverseSources();
+
+        // Clears the previous search
+        startBackwardSearch();
+        startPath(BIDIRECTIONAL, source, target);
+
+        distances.set(source, 0);
+        priority[source] = 0;
+        predecessor[source] = -1;
+        heap.add(source);
+        backwardDistances.set(target, 0);
+        backwardHeap.add(target);
+
+        // Length of the shortest source-to-target path seen so far, and the edge where its
+        // forward and backward halves join (meetingFrom, meetingTo)
+        double bestDistance = (source == target) ? 0 : Double.MAX_VALUE;
+        boolean forwardTurn = true;
+
+        while (!heap.isEmpty() && !backwardHeap.isEmpty()) {
+            // Stopping rule: every path not yet seen is at least as long as the two smallest keys
+            if (heap.peekKey() + backwardHeap.peekKey() >= bestDistance) {
+                break;
+            }
+
+            if (forwardTurn) {
+                // Forward step, over the out-edges of the closest forward vertex
+                int currentIndex = heap.poll();
+                expandedCount++;
+                for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = targets[edge];
+                    double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+
+                    if (newDistance < distances.get(neighborIndex)) {
+                        distances.set(neighborIndex, newDistance);
+                        priority[neighborIndex] = newDistance;
+                        predecessor[neighborIndex] = currentIndex;
+                        heap.addOrDecreaseKey(neighborIndex);
+                    }
+
+                    // Checks if the edge joins the two searches
+                    if (backwardDistances.isSet(neighborIndex)
+                            && newDistance + backwardDistance[neighborIndex] < bestDistance) {
+                        bestDistance = newDistance + backwardDistance[neighborIndex];
+                        meetingFrom = currentIndex;
+                        meetingTo = neighborIndex;
+                    }
+                }
+            }
+
+            else {
+                // Backward step, over the in-edges of the closest backward vertex
+                int currentIndex = backwardHeap.poll();
+                expandedCount++;
+                for (int edge = reverseOffsets[currentIndex]; edge < reverseOffsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = reverseSources[edge];
+                    double newDistance = backwardDistance[currentIndex] + graph.getReverseEdgeWeight(currentIndex, edge);
+
+                    if (newDistance < backwardDistances.get(neighborIndex)) {
+                        backwardDistances.set(neighborIndex, newDistance);
+                        backwardNext[neighborIndex] = currentIndex;
+                        backwardHeap.addOrDecreaseKey(neighborIndex);
+                    }
+
+                    // Checks if the edge joins the two searches
+                    if (distances.isSet(neighborIndex)
+                            && distance[neighborIndex] + newDistance < bestDistance) {
+                        bestDistance = distance[neighborIndex] + newDistance;
+                        meetingFrom = neighborIndex;
+                        meetingTo = currentIndex;
+                    }
+                }
+            }
+            forwardTurn = !forwardTurn;
+        }
+
+        // Re-adds the best path from the source: the forward distance to the meeting edge, the
+        // meeting edge, then each edge of the backward half in order
+        // Efficiency of O(path length)
+        if (meetingFrom >= 0) {
+            bestDistance = distance[meetingFrom] + graph.getDistanceBetween(meetingFrom, meetingTo);
+            for (int vertex = meetingTo; vertex != target; vertex = backwardNext[vertex]) {
+                bestDistance += graph.getDistanceBetween(vertex, backwardNext[vertex]);
+            }
+        }
+        return bestDistance;
+    }
+
+
+    /**
+     * contractionHierarchy Method
+     * Same result as dijkstra(), answered from the hierarchy given to the constructor.  The
+     * forward search follows upward out-edges from the source, the backward search follows upward
+     * in-edges from the target, taking turns.  A vertex settled by one side that the other side
+     * has also reached joins a source-to-target path.  A side stops once its smallest key is at
+     * least the best path found, and the query ends when both have stopped.
+     * The path found is expanded back into original edges and re-added in source-to-target order,
+     * so the distance matches dijkstra() exactly.
+     */
+    public double contractionHierarchy(int source, int target) {
+        if (hierarchy == null) {
+            throw new IllegalStateException("No contraction hierarchy was given for this search");
+        }
+        int[] upOffsets = hierarchy.getUpOffsets();
+        int[] upTargets = hierarchy.getUpTargets();
+        double[] upWeights = hierarchy.getUpWeights();
+        int[] upEdges = hierarchy.getUpEdges();
+        int[] downOffsets = hierarchy.getDownOffsets();
+        int[] downSources = hierarchy.getDownSources();
+        double[] downWeights = hierarchy.getDownWeights();
+        int[] downEdges = hierarchy.getDownEdges();
+
+        // Clears the previous search
+        startBackwardSearch();
+        startPath(CONTRACTION_HIERARCHY, source, target);
+
+        distances.set(source, 0);
+        priority[source] = 0;
+        parentEdge[source] = -1;
+        heap.add(source);
+        backwardDistances.set(target, 0);
+        backwardParentEdge[target] = -1;
+        backwardHeap.add(target);
+
+        // Length of the shortest source-to-target path seen so far, and its highest vertex
+        // (meetingVertex)
+        double bestDistance = Double.MAX_VALUE;
+        boolean forwardTurn = true;
+
+        while (true) {
+            boolean forwardOpen = !heap.isEmpty() && heap.peekKey() < bestDistance;
+            boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.peekKey() < bestDistance;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+
+            if (forwardOpen && (forwardTurn || !backwardOpen)) {
+                // Forward step, over the upward out-edges of the closest forward vertex
+                int currentIndex = heap.poll();
+                expandedCount++;
+                if (backwardDistances.isSet(currentIndex)
+                        && distance[currentIndex] + backwardDistance[currentIndex] < bestDistance) {
+                    bestDistance = distance[currentIndex] + backwardDistance[currentIndex];
+                    meetingVertex = currentIndex;
+                }
+                for (int edge = upOffsets[currentIndex]; edge < upOffsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = upTargets[edge];
+                    double newDistance = distance[currentIndex] + upWeights[edge];
+                    if (newDistance < distances.get(neighborIndex)) {
+                        distances.set(neighborIndex, newDistance);
+                        priority[neighborIndex] = newDistance;
+                        parentEdge[neighborIndex] = upEdges[edge];
+                        heap.addOrDecreaseKey(neighborIndex);
+                    }
+                }
+            }
+
+            else {
+                // Backward step, over the upward in-edges of the closest backward vertex
+                int currentIndex = backwardHeap.poll();
+                expandedCount++;
+                if (distances.isSet(currentIndex)
+                        && distance[currentIndex] + backwardDistance[currentIndex] < bestDistance) {
+                    bestDistance = distance[currentIndex] + backwardDistance[currentIndex];
+                    meetingVertex = currentIndex;
+                }
+                for (int edge = downOffsets[currentIndex]; edge < downOffsets[currentIndex + 1]; edge++) {
+                    int neighborIndex = downSources[edge];
+                    double newDistance = backwardDistance[currentIndex] + downWeights[edge];
+                    if (newDistance < backwardDistances.get(neighborIndex)) {
+                        backwardDistances.set(neighborIndex, newDistance);
+                        backwardParentEdge[neighborIndex] = downEdges[edge];
+                        backwardHeap.addOrDecreaseKey(neighborIndex);
+                    }
+                }
+            }
+            forwardTurn = !forwardTurn;
+        }
+
+        if (meetingVertex < 0) {
+            return Double.MAX_VALUE;
+        }
+        return unpackPath(false);
+    }
+
+
+    // Getters for the results of the last search
+    public double getDistance(int vertex) {
+        return distances.get(vertex);
+    }
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+
+    /**
+     * buildPath Method
+     * Lists the vertexes of the shortest path found by the last search, source first and target
+     * last, in the buffer returned by getPathVertexes().  Returns the number of vertexes listed,
+     * 0 if the target could not be reached.  Nothing is allocated once the buffer has grown to
+     * fit the longest path.
+     * Efficiency of O(path length)
+     */
+    public int buildPath() {
+        if (lastTarget < 0) {
+            return 0;
+        }
+        if (lastMode == CONTRACTION_HIERARCHY) {
+            if (meetingVertex < 0) {
+                return 0;
+            }
+            unpackPath(true);
+            int length = unpacker.getNumberOfVertexes();
+            if (length > pathVertexes.length) {
+                pathVertexes = Arrays.copyOf(pathVertexes, Math.max(length, 2 * pathVertexes.length));
+            }
+            System.arraycopy(unpacker.getVertexes(), 0, pathVertexes, 0, length);
+            return length;
+        }
+        if (lastMode == BIDIRECTIONAL) {
+            if (lastSource == lastTarget) {
+                pathVertexes[0] = lastSource;
+                return 1;
+            }
+            if (meetingFrom < 0) {
+                return 0;
+            }
+            // The forward half along the predecessors, then the backward half along backwardNext
+            int length = addPredecessorChain(meetingFrom, 0);
+            for (int vertex = meetingTo; vertex != lastTarget; vertex = backwardNext[vertex]) {
+                length = addPathVertex(length, vertex);
+            }
+            return addPathVertex(length, lastTarget);
+        }
+        if (!distances.isSet(lastTarget)) {
+            return 0;
+        }
+        return addPredecessorChain(lastTarget, 0);
+    }
+
+    // Buffer filled by buildPath(), only the first (returned) number of entries belong to the path
+    public int[] getPathVertexes() {
+        return pathVertexes;
+    }
+
+    /**
+     * writePath Method
+     * Writes the shortest path found by the last search (see writePath(Graph, ...))
+     */
+    public void writePath(PrintWriter writer) {
+        int length = buildPath();
+        writePath(graph, lastSource, lastTarget, pathVertexes, 0, length, writer);
+    }
+
+    // A distance as printed by -batch and -updates: the number, or "unreachable" for MAX (no path),
+    // the same word the path file uses
+    public static String formatDistance(double distance) {
+        return (distance == Double.MAX_VALUE) ? "unreachable" : String.valueOf(distance);
+    }
+
+    /**
+     * writePath Method
+     * Writes one path from vertexes[start, start + length) in the path file format:
+     *      path <source> <target> <hops>        (or  path <source> <target> unreachable)
+     * followed by one line per vertex on the path, source first,
+     *      <vertex> <length of the hop into the vertex> <distance from the source>
+     * Vertexes are written as their input vertex numbers (see Graph.getInputIndex()).  The hops
+     * are added up in path order, so the last distance matches the distance the search returned.
+     * Efficiency of O(path length)
+     */
+    public static void writePath(Graph graph, int source, int target, int[] vertexes, int start, int length,
+                                 PrintWriter writer) {
+        String header = "path " + (graph.getInputIndex(source) + 1) + " " + (graph.getInputIndex(target) + 1);
+        if (length == 0) {
+            writer.println(header + " unreachable");
+            return;
+        }
+        writer.println(header + " " + (length - 1));
+        double total = 0;
+        int previous = vertexes[start];
+        for (int i = start; i < start + length; i++) {
+            double hop = graph.getDistanceBetween(previous, vertexes[i]);
+            total += hop;
+            writer.println((graph.getInputIndex(vertexes[i]) + 1) + " " + hop + " " + total);
+            previous = vertexes[i];
+        }
+    }
+
+
+    // Helper Methods
+
+    /**
+     * startSearch Method
+     * Moves to a new generation, which discards every distance written by earlier searches (see
+     * StampedDistances), and empties the heap
+     * Completed in O(1) time plus the size of the heap
+     */
+    private void startSearch() {
+        distances.nextGeneration();
+        heap.clear();
+        expandedCount = 0;
+    }
+
+    // Starts a search that also uses the backward state, allocating it on first use
+    private void startBackwardSearch() {
+        if (backwardDistances == null) {
+            backwardDistances = new StampedDistances(graph.getNumberOfVertexes());
+            backwardDistance = backwardDistances.getValues();
+            backwardNext = new int[graph.getNumberOfVertexes()];
+            backwardHeap = new IndexedHeap(backwardDistance, graph.getNumberOfVertexes(), heapArity);
+        }
+        startSearch();
+        backwardDistances.nextGeneration();
+        backwardHeap.clear();
+    }
+
+    // Remembers what the search being started is for, so buildPath() can list its path later
+    private void startPath(int searchMode, int source, int target) {
+        lastMode = searchMode;
+        lastSource = source;
+        lastTarget = target;
+        meetingFrom = -1;
+        meetingTo = -1;
+        meetingVertex = -1;
+    }
+
+    /**
+     * addPredecessorChain Method
+     * Adds the path from the source to end, found by following predecessors back from end, to
+     * pathVertexes starting at slot start, and returns the new path length.  The chain is walked
+     * twice, once to measure it and once to fill it in from the back, so it lands in order
+     * without being reversed.
+     * Efficiency of O(path length)
+     */
+    private int addPredecessorChain(int end, int start) {
+        int length = start;
+        for (int vertex = end; vertex >= 0; vertex = predecessor[vertex]) {
+            length++;
+        }
+        if (length > pathVertexes.length) {
+            pathVertexes = Arrays.copyOf(pathVertexes, Math.max(length, 2 * pathVertexes.length));
+        }
+        int slot = length;
+        for (int vertex = end; vertex >= 0; vertex = predecessor[vertex]) {
+            pathVertexes[--slot] = vertex;
+        }
+        return length;
+    }
+
+    // Adds a vertex to the end of pathVertexes, growing it if needed, and returns the new length
+    private int addPathVertex(int length, int vertex) {
+        if (length == pathVertexes.length) {
+            pathVertexes = Arrays.copyOf(pathVertexes, 2 * pathVertexes.length);
+        }
+        pathVertexes[length] = vertex;
+        return length + 1;
+    }
+
+    /**
+     * unpackPath Method
+     * Expands the path found by contractionHierarchy(), source to meeting vertex to target, back
+     * into original edges (see ContractionHierarchy.PathUnpacker), and returns its length.  If
+     * listVertexes is set, the unpacker also lists the vertexes of the path.
+     * Efficiency of O(number of original edges on the path)
+     */
+    private double unpackPath(boolean listVertexes) {
+        unpacker.clear();
+        for (int vertex = meetingVertex; backwardParentEdge[vertex] >= 0; vertex = hierarchy.getEdgeTo(backwardParentEdge[vertex])) {
+            unpacker.addBackwardEdge(backwardParentEdge[vertex]);
+        }
+        unpacker.addForwardHalf(parentEdge, meetingVertex);
+        return unpacker.expand(graph, lastSource, listVertexes);
+    }
+
+    /**
+     * oneDirectionalSearch Method
+     * Shared loop of the dijkstra, aStar and alt modes.  We remove the vertex with the smallest key from the heap, and
+     * update the distances of its neighbors, adding them to the heap or lowering their key as
+     * needed.  In the A* modes a vertex's key is its distance plus its lower bound to the
+     * target (see lowerBound()), otherwise it is just its distance.  The search ends when the
+     * target is removed.  A vertex is put back in the heap only if a shorter path to it is found,
+     * so with the consistent straight-line heuristic each vertex is expanded at most once.
+     */
+    private double oneDirectionalSearch(int source, int target, int searchMode) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        // Clears the previous search
+        startSearch();
+        startPath(searchMode, source, target);
+
+        distances.set(source, 0);
+        priority[source] = lowerBound(source, target, searchMode);
+        predecessor[source] = -1;
+        heap.add(source);
+
+        while (!heap.isEmpty()) {
+            // Grabs the vertex with the smallest key, its distance is now final
+            int currentIndex = heap.poll();
+            expandedCount++;
+            if (currentIndex == target) {
+                break;
+            }
+
+            // Loops over the vertex's out-edges, updating the neighbors' distances if needed
+            for (int edge = offsets[currentIndex]; edge < offsets[currentIndex + 1]; edge++) {
+                int neighborIndex = targets[edge];
+                double newDistance = distance[currentIndex] + graph.getEdgeWeight(currentIndex, edge);
+
+                if (newDistance < distances.get(neighborIndex)) {
+                    distances.set(neighborIndex, newDistance);
+                    priority[neighborIndex] = newDistance + lowerBound(neighborIndex, target, searchMode);
+                    predecessor[neighborIndex] = currentIndex;
+
+                    // Adds the neighbor to the heap, or moves it up if it is already there
+                    heap.addOrDecreaseKey(neighborIndex);
+                }
+            }
+        }
+
+        return distances.get(target);
+    }
+
+    // Lower bound on the distance from vertex to target used as the A* heuristic, 0 in Dijkstra mode
+    private double lowerBound(int vertex, int target, int searchMode) {
+        if (searchMode == ASTAR) {
+            return graph.getDistanceBetween(vertex, target);
+        }
+        if (searchMode == ALT) {
+            return Math.max(graph.getDistanceBetween(vertex, target), landmarks.lowerBound(vertex, target));
+        }
+        return 0;
+    }
+}
\ No newline at end of file
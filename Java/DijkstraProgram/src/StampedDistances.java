@@ -0,0 +1,79 @@
+import java.util.*;
+
+/**
+ * StampedDistances Class
+ *
+ * One distance per vertex that a search object keeps from one search to the next, and resets in
+ * O(1) instead of O(n).  Each search gets a new generation number, and a vertex's distance only
+ * counts if its stamp matches the current generation, every other vertex reads as unreached
+ * (Double.MAX_VALUE).  In the rare case the generation counter wraps around, the stamps are
+ * cleared once so no stale stamp can match again.
+ * The searches (see ShortestPathSearch, DistanceMatrix, KShortestPaths, RadiusSearch and the
+ * witness searches of ContractionHierarchy) key their heaps on the distances directly, through
+ * getValues(), and read the distance of a vertex already reached from that array too.
+ * For complexity arguments, n = number of vertexes.
+ *
+ * Fields:
+ *      value : distance of each vertex, only valid where stamp matches
+ *      stamp : generation in which each vertex's distance was last written
+ *      generation : number of the current search
+ */
+public class StampedDistances {
+    // Fields
+    private final double[] value;
+    private final int[] stamp;
+    private int generation;
+
+
+    // Constructor Method
+    // Efficiency of O(n)
+    public StampedDistances(int numberOfVertexes) {
+        value = new double[numberOfVertexes];
+        stamp = new int[numberOfVertexes];
+        generation = 0;
+    }
+
+
+    /**
+     * nextGeneration Method
+     * Starts a new search, in which no vertex has been reached yet.  Returns true if the counter
+     * wrapped and the stamps were cleared, so a caller that marks other arrays with
+     * getGeneration() can clear those too
+     * Completed in O(1) time, O(n) once every 2^31 searches
+     */
+    public boolean nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+            return true;
+        }
+        return false;
+    }
+
+    // Distance of a vertex in the current search, MAX if it has not been reached
+    public double get(int vertex) {
+        return (stamp[vertex] == generation) ? value[vertex] : Double.MAX_VALUE;
+    }
+
+    // Whether a vertex has been reached in the current search
+    public boolean isSet(int vertex) {
+        return stamp[vertex] == generation;
+    }
+
+    // Records a distance for the current search
+    public void set(int vertex, double distance) {
+        value[vertex] = distance;
+        stamp[vertex] = generation;
+    }
+
+
+    // Getters for the fields
+    // The distances themselves, only valid where isSet(), for heaps keyed on them
+    public double[] getValues() {
+        return value;
+    }
+    public int getGeneration() {
+        return generation;
+    }
+}
@@ -0,0 +1,304 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Boruvka Class
+ *
+ * Minimum spanning tree by Boruvka's algorithm on a ForkJoinPool, for edge lists too large for one
+ * core.  Kruskal adds one edge at a time in weight order, which cannot be split between threads.
+ * Boruvka works in rounds instead, and within a round every edge can be looked at independently:
+ *      1) lightest edges: the edge list is cut into chunks, and the threads claim chunks from a
+ *         shared counter.  For each edge, the lighter of it and the best edge so far of each of its
+ *         two components is kept, with an atomic compare-and-set min on a long array
+ *      2) contraction: the lightest edge of every component is added to the tree, joining the
+ *         components it connects (see UnionFind, over the components of this round), and the new
+ *         components are numbered 0 to k - 1
+ *      3) compaction: each edge's ends are renamed to their new components, and edges inside one
+ *         component are dropped.  Each chunk counts its survivors, a prefix sum gives each chunk
+ *         its place, and the chunks copy their survivors there in parallel, keeping their order
+ * Every component has an edge to some other component while the graph is not spanned, so each
+ * round at least halves the number of components: there are at most log2(n) rounds, and the edge
+ * list usually shrinks much faster than that.
+ * Ties between equal weights are broken by the edge's position in the current list, so the
+ * lightest edges of one round form a forest (an edge chosen from both of its ends is added once),
+ * and the tree has the same weight Kruskal finds.  Each candidate is packed into one long, weight
+ * in the high 32 bits and position in the low 32, so a single compare orders both.
+ * For complexity arguments, n = number of vertexes, while m = edges, t = threads.  A run takes
+ * O((m / t + n) log(n)) time.  The EdgeList's arrays hold the first edge list and are overwritten,
+ * so the only extra memory is the 12 bytes per edge compaction writes into.
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      source, destination, weight : the edges still between two components, ends renamed to
+ *                                    the current components
+ *      spareSource, spareDestination, spareWeight : where compaction writes the next edge list
+ *      numberOfEdges : number of edges in the current list
+ *      numberOfComponents : number of components left
+ *      best : lightest edge of each component in the current round, packed, MAX if none yet
+ *      newComponent : new number of each component of the current round
+ *      numberOfThreads : size of the thread pool
+ *      threadPool : runs the chunks of each pass
+ *      treeWeight : weight of the tree edges added so far
+ *      rounds : number of rounds run
+ */
+public class Boruvka {
+    // Number of edges each worker claims at a time
+    public static final int CHUNK_SIZE = 1 << 14;
+
+    // Candidate of a component with no edge found yet
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    // Fields
+    private final int numberOfVertexes;
+    private int[] source;
+    private int[] destination;
+    private int[] weight;
+    private int[] spareSource;
+    private int[] spareDestination;
+    private int[] spareWeight;
+    private int numberOfEdges;
+    private int numberOfComponents;
+    private AtomicLongArray best;
+    private int[] newComponent;
+    private final int numberOfThreads;
+    private final ForkJoinPool threadPool;
+    private long treeWeight;
+    private int rounds;
+
+
+    // Constructor Method
+    // Efficiency of O(m)
+    public Boruvka(EdgeList edges, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Boruvka needs at least 1 thread, was " + threads);
+        }
+        numberOfVertexes = edges.getNumberOfVertexes();
+        numberOfEdges = edges.getNumberOfEdges();
+        numberOfComponents = numberOfVertexes;
+        source = edges.getSources();
+        destination = edges.getDestinations();
+        weight = edges.getWeights();
+        spareSource = new int[numberOfEdges];
+        spareDestination = new int[numberOfEdges];
+        spareWeight = new int[numberOfEdges];
+        numberOfThreads = threads;
+        threadPool = new ForkJoinPool(numberOfThreads);
+    }
+
+
+    /**
+     * run Method
+     * Builds the minimum spanning tree (a forest if the graph is not connected), and returns its
+     * weight.  It spans the graph only if spans() says so afterwards.  Shuts the thread pool down
+     * when done, so an object runs once
+     * Completed in O((m / t + n) log(n)) time
+     */
+    public long run() {
+        try {
+            while (numberOfComponents > 1 && numberOfEdges > 0) {
+                findLightestEdges(numberOfComponents);
+                numberOfComponents = contract(numberOfComponents);
+                compact();
+                rounds++;
+            }
+        }
+        finally {
+            threadPool.shutdown();
+        }
+        return treeWeight;
+    }
+
+    // Whether the tree spans the graph, a single component being left
+    public boolean spans() {
+        return numberOfComponents == 1;
+    }
+
+
+    // Getters for the fields
+    public int getRounds() {
+        return rounds;
+    }
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * findLightestEdges Method
+     * Step 1: records in best the lightest edge touching each component, in parallel over the
+     * chunks of the edge list
+     * Completed in O(m / t + k) time, k = number of components
+     */
+    private void findLightestEdges(int numberOfComponents) {
+        best = new AtomicLongArray(numberOfComponents);
+        for (int c = 0; c < numberOfComponents; c++) {
+            best.set(c, NO_EDGE);
+        }
+        runChunks(new ChunkTask() {
+            void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    if (source[i] != destination[i]) {
+                        long candidate = ((long) weight[i] << 32) | i;
+                        lowerBest(source[i], candidate);
+                        lowerBest(destination[i], candidate);
+                    }
+                }
+            }
+        });
+    }
+
+    // Atomic min: replaces the component's best edge with the candidate if it is lighter
+    private void lowerBest(int component, long candidate) {
+        long current = best.get(component);
+        while (candidate < current) {
+            if (best.compareAndSet(component, current, candidate)) {
+                return;
+            }
+            current = best.get(component);
+        }
+    }
+
+    /**
+     * contract Method
+     * Step 2: adds every component's lightest edge to the tree, joining the components it
+     * connects, and numbers the new components.  Returns the number of new components
+     * Completed in O(k alpha(k)) time
+     */
+    private int contract(int numberOfComponents) {
+        UnionFind joined = new UnionFind(numberOfComponents);
+        for (int c = 0; c < numberOfComponents; c++) {
+            long candidate = best.get(c);
+            if (candidate != NO_EDGE) {
+                int edge = (int) candidate;
+                if (joined.union(source[edge], destination[edge], weight[edge]) >= 0) {
+                    treeWeight += weight[edge];
+                }
+            }
+        }
+
+        // Numbers the new components in order of their root
+        newComponent = new int[numberOfComponents];
+        int[] rootNumber = new int[numberOfComponents];
+        Arrays.fill(rootNumber, -1);
+        int newCount = 0;
+        for (int c = 0; c < numberOfComponents; c++) {
+            int root = joined.find(c);
+            if (rootNumber[root] < 0) {
+                rootNumber[root] = newCount++;
+            }
+            newComponent[c] = rootNumber[root];
+        }
+        return newCount;
+    }
+
+    /**
+     * compact Method
+     * Step 3: renames the ends of every edge to the new components and keeps the edges between two
+     * different ones, in order, in parallel over fixed chunks of the edge list
+     * Completed in O(m / t + m / CHUNK_SIZE) time
+     */
+    private void compact() {
+        final int chunks = (numberOfEdges + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final int[] kept = new int[chunks + 1];
+
+        // Counts the survivors of each chunk, at kept[chunk + 1] so the prefix sum lines up
+        runChunks(new ChunkTask() {
+            void run(int start, int end) {
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                    if (newComponent[source[i]] != newComponent[destination[i]]) {
+                        count++;
+                    }
+                }
+                kept[start / CHUNK_SIZE + 1] = count;
+            }
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            kept[chunk + 1] += kept[chunk];
+        }
+
+        // Copies each chunk's survivors to its place, renamed
+        runChunks(new ChunkTask() {
+            void run(int start, int end) {
+                int slot = kept[start / CHUNK_SIZE];
+                for (int i = start; i < end; i++) {
+                    int a = newComponent[source[i]];
+                    int b = newComponent[destination[i]];
+                    if (a != b) {
+                        spareSource[slot] = a;
+                        spareDestination[slot] = b;
+                        spareWeight[slot] = weight[i];
+                        slot++;
+                    }
+                }
+            }
+        });
+
+        // The compacted list becomes the current one
+        int[] swap = source;
+        source = spareSource;
+        spareSource = swap;
+        swap = destination;
+        destination = spareDestination;
+        spareDestination = swap;
+        swap = weight;
+        weight = spareWeight;
+        spareWeight = swap;
+        numberOfEdges = kept[chunks];
+    }
+
+    /**
+     * runChunks Method
+     * Runs the task over every CHUNK_SIZE range of the current edge list, the workers claiming
+     * chunks from a shared counter, and waits for all of them.  A short list is done on this
+     * thread
+     */
+    private void runChunks(final ChunkTask task) {
+        if (numberOfThreads == 1 || numberOfEdges <= CHUNK_SIZE) {
+            for (int start = 0; start < numberOfEdges; start += CHUNK_SIZE) {
+                task.run(start, Math.min(start + CHUNK_SIZE, numberOfEdges));
+            }
+            return;
+        }
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final int edges = numberOfEdges;
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numberOfThreads);
+        for (int t = 0; t < numberOfThreads; t++) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    int start = nextChunk.getAndAdd(CHUNK_SIZE);
+                    while (start < edges) {
+                        task.run(start, Math.min(start + CHUNK_SIZE, edges));
+                        start = nextChunk.getAndAdd(CHUNK_SIZE);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        // Waits for every worker, passing on any failure
+        for (Future<Void> result : threadPool.invokeAll(tasks)) {
+            try {
+                result.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while contracting edges", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Boruvka worker failed", e.getCause());
+            }
+        }
+    }
+
+
+    // Additional Classes
+
+    // The work on one chunk [start, end) of the edge list in a pass
+    private abstract static class ChunkTask {
+        abstract void run(int start, int end);
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * EdgeList Class
+ *
+ * The edges of the undirected graph read by Kruskal, kept in three parallel primitive arrays
+ * (source, destination, weight) instead of one Edge object per edge.  Edge i is the entries at
+ * index i of all three, so sorting or scanning the edges walks the arrays in order, with no
+ * object to load per edge.  Vertexes are referred to by index (vertex number - 1).
+ * For complexity arguments, n = number of vertexes, while m = edges.
+ * Reading the input takes O(n + m) time, and the list takes 12 bytes per edge.
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      numberOfEdges : m
+ *      source : first vertex index of each edge, as listed in the input
+ *      destination : second vertex index of each edge, as listed in the input
+ *      weight : weight of each edge
+ */
+public class EdgeList {
+    // Fields
+    private final int numberOfVertexes;
+    private final int numberOfEdges;
+    private final int[] source;
+    private final int[] destination;
+    private final int[] weight;
+
+
+    // Constructor Method
+    public EdgeList(int vertexes, int[] edgeSources, int[] edgeDestinations, int[] edgeWeights) {
+        numberOfVertexes = vertexes;
+        numberOfEdges = edgeSources.length;
+        source = edgeSources;
+        destination = edgeDestinations;
+        weight = edgeWeights;
+    }
+
+
+    /**
+     * read Method
+     * Reads a graph in the input format described in the README, edges in the order listed
+     * Efficiency of O(m)
+     */
+    public static EdgeList read(File inputFile) throws FileNotFoundException {
+        Scanner inputScanner = new Scanner(inputFile);
+        try {
+            // Read first line to determine number of edges and vertexes
+            int numberOfVertexes = inputScanner.nextInt();
+            int numberOfEdges = inputScanner.nextInt();
+
+            // Reads the next m lines into the three arrays, converting vertex numbers to indexes
+            int[] source = new int[numberOfEdges];
+            int[] destination = new int[numberOfEdges];
+            int[] weight = new int[numberOfEdges];
+            for (int i = 0; i < numberOfEdges; i++) {
+                source[i] = readVertex(inputScanner, numberOfVertexes, i);
+                destination[i] = readVertex(inputScanner, numberOfVertexes, i);
+                weight[i] = inputScanner.nextInt();
+            }
+            return new EdgeList(numberOfVertexes, source, destination, weight);
+        }
+        finally {
+            inputScanner.close();
+        }
+    }
+
+
+    // Getters for the fields
+    public int getNumberOfVertexes() {
+        return numberOfVertexes;
+    }
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+    public int[] getSources() {
+        return source;
+    }
+    public int[] getDestinations() {
+        return destination;
+    }
+    public int[] getWeights() {
+        return weight;
+    }
+
+
+    // Helper Methods
+
+    // Reads one vertex number of edge i and returns its index
+    private static int readVertex(Scanner inputScanner, int numberOfVertexes, int i) {
+        int label = inputScanner.nextInt();
+        if (label < 1 || label > numberOfVertexes) {
+            throw new IllegalArgumentException("Edge " + (i + 1) + " has vertex " + label + ", expected 1 to "
+                    + numberOfVertexes);
+        }
+        return label - 1;
+    }
+}
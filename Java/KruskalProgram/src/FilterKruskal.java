@@ -0,0 +1,223 @@
+import java.util.*;
+
+/**
+ * FilterKruskal Class
+ *
+ * Kruskal's algorithm without sorting the edges it will never use (Osipov, Sanders and Singler).
+ * Plain Kruskal sorts every edge, but stops as soon as the tree spans the graph, and of the edges
+ * it does look at most join two vertexes that are already connected.  Filter-Kruskal only sorts
+ * what it must:
+ *      1) partition the edges around a pivot weight, quicksort style, into lighter, equal and
+ *         heavier edges
+ *      2) recurse on the lighter edges, then run Kruskal over the equal ones (no sort needed)
+ *      3) filter the heavier edges: drop every edge whose endpoints the tree already connects,
+ *         since it can only close a cycle
+ *      4) go on with what is left of the heavier edges, as in 1)
+ * Small ranges are quicksorted and scanned as in plain Kruskal.  As soon as the tree spans the
+ * graph nothing else is partitioned, filtered or sorted.  On a dense graph the light edges connect
+ * everything early, and most of the heavy edges are dropped by a filter pass or never touched at
+ * all, instead of being sorted.
+ *
+ * The edges of the EdgeList are rearranged in place, the three arrays moving together as in
+ * RadixSort, so no memory is needed beyond the union-find.  Pivots are the median of three weights
+ * picked at random (with a fixed seed, so a run can be repeated), and the three-way partition
+ * keeps ranges of one repeated weight from recursing forever.
+ * For complexity arguments, n = number of vertexes, while m = edges.  A run takes
+ * O(m + n log(n) log(m / n)) expected time on random weights (O(m log(m)) worst case), against
+ * O(m log(m)) for a comparison sort of every edge.
+ *
+ * Fields:
+ *      source, destination, weight : the edges (see EdgeList), rearranged in place
+ *      components : the vertexes joined so far (see UnionFind)
+ *      treeWeight : weight of the tree edges added so far
+ *      random : picks the pivot candidates
+ *      sortedCount : number of edges that went through a base-case sort
+ *      filteredCount : number of edges dropped by a filter pass
+ */
+public class FilterKruskal {
+    // Ranges at most this long are quicksorted and scanned instead of partitioned and filtered
+    public static final int BASE_CASE_SIZE = 1 << 10;
+
+    // Ranges at most this long are sorted by insertion inside the quicksort
+    public static final int INSERTION_SORT_SIZE = 16;
+
+    // Fields
+    private final int[] source;
+    private final int[] destination;
+    private final int[] weight;
+    private final UnionFind components;
+    private long treeWeight;
+    private final Random random;
+    private long sortedCount;
+    private long filteredCount;
+
+
+    // Constructor Method
+    // Efficiency of O(n)
+    public FilterKruskal(EdgeList edges) {
+        source = edges.getSources();
+        destination = edges.getDestinations();
+        weight = edges.getWeights();
+        components = new UnionFind(edges.getNumberOfVertexes());
+        random = new Random(1);
+    }
+
+
+    /**
+     * run Method
+     * Builds the minimum spanning tree (a forest if the graph is not connected), and returns its
+     * weight.  It spans the graph only if spans() says so afterwards
+     * Completed in O(m + n log(n) log(m / n)) expected time
+     */
+    public long run() {
+        filterKruskal(0, source.length);
+        return treeWeight;
+    }
+
+    // Whether the tree spans the graph, a single component being left
+    public boolean spans() {
+        return components.getNumberOfSets() == 1;
+    }
+
+
+    // Getters for the fields
+    public long getSortedCount() {
+        return sortedCount;
+    }
+    public long getFilteredCount() {
+        return filteredCount;
+    }
+
+
+    // Helper Methods
+
+    /**
+     * filterKruskal Method
+     * Adds the edges of [low, high) to the tree, lightest first, skipping all the sorting and
+     * filtering it can once the tree spans the graph
+     */
+    private void filterKruskal(int low, int high) {
+        while (high - low > BASE_CASE_SIZE && components.getNumberOfSets() > 1) {
+            // [low, lessEnd) is lighter than the pivot, [lessEnd, greaterStart) equal to it, and
+            // [greaterStart, high) heavier
+            int pivot = pickPivot(low, high);
+            long bounds = partition(low, high, pivot);
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterStart = (int) bounds;
+
+            filterKruskal(low, lessEnd);
+            kruskal(lessEnd, greaterStart);
+            low = greaterStart;
+            high = filter(greaterStart, high);
+        }
+        if (components.getNumberOfSets() > 1) {
+            sortedCount += high - low;
+            quicksort(low, high);
+            kruskal(low, high);
+        }
+    }
+
+    // Runs Kruskal's loop over [low, high), which must be in order, until the tree spans the graph
+    private void kruskal(int low, int high) {
+        for (int i = low; i < high && components.getNumberOfSets() > 1; i++) {
+            if (components.union(source[i], destination[i], weight[i]) >= 0) {
+                treeWeight += weight[i];
+            }
+        }
+    }
+
+    /**
+     * filter Method
+     * Moves the edges of [low, high) that join two different components to the front of the range,
+     * in order, and returns the end of them; the rest can only close cycles
+     * Completed in O((high - low) alpha(n)) time
+     */
+    private int filter(int low, int high) {
+        int end = low;
+        for (int i = low; i < high; i++) {
+            if (!components.connected(source[i], destination[i])) {
+                source[end] = source[i];
+                destination[end] = destination[i];
+                weight[end] = weight[i];
+                end++;
+            }
+        }
+        filteredCount += high - end;
+        return end;
+    }
+
+    // Median of the weights of three edges of [low, high) picked at random
+    private int pickPivot(int low, int high) {
+        int a = weight[low + random.nextInt(high - low)];
+        int b = weight[low + random.nextInt(high - low)];
+        int c = weight[low + random.nextInt(high - low)];
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * partition Method
+     * Three-way partition of [low, high) around the pivot weight (Dijkstra's Dutch national flag):
+     * lighter edges first, then those equal to the pivot, then heavier ones.  Returns the end of
+     * the lighter edges in the high 32 bits and the start of the heavier ones in the low 32 bits
+     * Completed in O(high - low) time
+     */
+    private long partition(int low, int high, int pivot) {
+        int lessEnd = low;
+        int i = low;
+        int greaterStart = high;
+        while (i < greaterStart) {
+            if (weight[i] < pivot) {
+                swap(i++, lessEnd++);
+            }
+            else if (weight[i] > pivot) {
+                swap(i, --greaterStart);
+            }
+            else {
+                i++;
+            }
+        }
+        return ((long) lessEnd << 32) | greaterStart;
+    }
+
+    /**
+     * quicksort Method
+     * Sorts [low, high) by weight with three-way quicksort, recursing on the smaller side and
+     * looping on the larger so the stack stays O(log(m)) deep
+     * Completed in O(k log(k)) expected time, k = high - low
+     */
+    private void quicksort(int low, int high) {
+        while (high - low > INSERTION_SORT_SIZE) {
+            long bounds = partition(low, high, pickPivot(low, high));
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterStart = (int) bounds;
+            if (lessEnd - low < high - greaterStart) {
+                quicksort(low, lessEnd);
+                low = greaterStart;
+            }
+            else {
+                quicksort(greaterStart, high);
+                high = lessEnd;
+            }
+        }
+
+        // Insertion sort of what is left
+        for (int i = low + 1; i < high; i++) {
+            for (int j = i; j > low && weight[j - 1] > weight[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    // Swaps edges i and j in all three arrays
+    private void swap(int i, int j) {
+        int swapSource = source[i];
+        source[i] = source[j];
+        source[j] = swapSource;
+        int swapDestination = destination[i];
+        destination[i] = destination[j];
+        destination[j] = swapDestination;
+        int swapWeight = weight[i];
+        weight[i] = weight[j];
+        weight[j] = swapWeight;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Planner Class
+ *
+ * Picks the minimum spanning tree algorithm for a graph from its size alone: n and m, as read off
+ * the first line of the input.  Which algorithm is fastest depends mostly on how many edges there
+ * are per vertex, measured on random weights with n from 500 to 100,000:
+ *      KRUSKAL : fewer than FILTER_EDGES_PER_VERTEX edges per vertex.  Most edges are needed
+ *                before the tree spans the graph, so there is little for Filter-Kruskal to skip,
+ *                and the radix sort and scan (see RadixSort) is the fastest
+ *      FILTER_KRUSKAL : more edges per vertex than that.  The light edges span the graph early,
+ *                       and the heavy ones are dropped by a filter pass without being sorted
+ *                       (see FilterKruskal)
+ *      PRIM : at least PRIM_DENSITY of all n (n - 1) / 2 possible edges.  Sorting or even
+ *             partitioning the edges costs more than growing one tree through an adjacency array
+ *             (see Prim), which only touches each edge once
+ * BORUVKA is never picked, since it only beats Kruskal with several cores to run on (see
+ * Boruvka), but can be asked for with -boruvka.
+ * For complexity arguments, n = number of vertexes, while m = edges.  A choice takes O(1) time.
+ */
+public class Planner {
+    // The algorithms, by number
+    public static final int KRUSKAL = 0;
+    public static final int FILTER_KRUSKAL = 1;
+    public static final int PRIM = 2;
+    public static final int BORUVKA = 3;
+
+    // Names of the algorithms, in the order of their numbers
+    private static final String[] NAMES = {"Kruskal", "Filter-Kruskal", "Prim", "Boruvka"};
+
+    // Edges per vertex from which Filter-Kruskal is picked over Kruskal
+    public static final int FILTER_EDGES_PER_VERTEX = 50;
+
+    // Share of all possible edges from which Prim is picked
+    public static final double PRIM_DENSITY = 0.75;
+
+
+    /**
+     * choose Method
+     * Returns the algorithm to run on a graph of n vertexes and m edges
+     * Completed in O(1) time
+     */
+    public static int choose(int numberOfVertexes, long numberOfEdges) {
+        if (numberOfVertexes > 1 && getDensity(numberOfVertexes, numberOfEdges) >= PRIM_DENSITY) {
+            return PRIM;
+        }
+        if (numberOfEdges >= (long) FILTER_EDGES_PER_VERTEX * numberOfVertexes) {
+            return FILTER_KRUSKAL;
+        }
+        return KRUSKAL;
+    }
+
+    // Share of the n (n - 1) / 2 possible edges that there are, 0 with fewer than 2 vertexes
+    public static double getDensity(int numberOfVertexes, long numberOfEdges) {
+        if (numberOfVertexes < 2) {
+            return 0;
+        }
+        return 2.0 * numberOfEdges / ((double) numberOfVertexes * (numberOfVertexes - 1));
+    }
+
+    // Name of the algorithm numbered strategy
+    public static String getName(int strategy) {
+        return NAMES[strategy];
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.*;
+
+/**
+ * Prim Class
+ *
+ * Minimum spanning tree by Prim's algorithm, for dense graphs.  Kruskal has to sort (or at least
+ * partition) the edges, and when m is close to n^2 / 2 that is most of the work.  Prim grows a
+ * single tree from vertex 0 instead, always adding the vertex closest to the tree, and never
+ * orders the edges at all:
+ *      1) the edges are laid out as an adjacency array (each vertex's neighbours in one run of a
+ *         shared array, the first of them found through offset[]), both directions of every edge
+ *      2) every vertex outside the tree is kept in an indexed binary heap, keyed by the weight of
+ *         its lightest edge to the tree
+ *      3) the vertex at the top of the heap joins the tree, and the key of each of its neighbours
+ *         is lowered to the weight of the edge between them if that is lighter
+ * The heap holds each vertex at most once, and position[] tells where, so lowering a key moves the
+ * vertex up from where it is rather than adding another entry.  There are at most n entries, so a
+ * heap operation is O(log(n)) however many edges there are.  A vertex only enters the heap when
+ * the first edge from the tree reaches it, so vertexes not connected to vertex 0 are never added,
+ * and the graph is connected exactly when all n vertexes joined (see spans()).  Whether the tree
+ * spans the graph is kept apart from its weight, since with negative weights any long is a weight.
+ * For complexity arguments, n = number of vertexes, while m = edges.  Building the adjacency array
+ * takes O(n + m) time, and a run O(m log(n)) worst case, though most edges of a dense graph do not
+ * lower a key and cost O(1).  The adjacency array takes 16 bytes per edge, on top of the EdgeList.
+ *
+ * Fields:
+ *      numberOfVertexes : n
+ *      offset : first entry of each vertex in adjacency, and the end of the last one
+ *      adjacency : each entry is two ints, the other end of an edge then its weight, grouped by
+ *                  vertex.  Interleaved so placing an entry, or reading one, touches one cache line
+ *      heap : vertexes outside the tree that an edge from the tree reaches, as a binary heap on key
+ *      heapSize : number of vertexes in heap
+ *      position : index of each vertex in heap, NOT_REACHED before it enters, IN_TREE after it leaves
+ *      key : weight of the lightest edge between each vertex in heap and the tree
+ *      treeSize : number of vertexes in the tree
+ *      decreaseCount : number of keys lowered
+ */
+public class Prim {
+    // Position of a vertex no edge from the tree has reached yet
+    private static final int NOT_REACHED = -1;
+
+    // Position of a vertex already in the tree
+    private static final int IN_TREE = -2;
+
+    // Fields
+    private final int numberOfVertexes;
+    private final int[] offset;
+    private final int[] adjacency;
+    private final int[] heap;
+    private int heapSize;
+    private final int[] position;
+    private final int[] key;
+    private int treeSize;
+    private long decreaseCount;
+
+
+    // Constructor Method
+    // Lays the edges out as an adjacency array, with a counting pass and a placing pass.  Edges
+    // from a vertex to itself are left out, since they can never join the tree
+    // Efficiency of O(n + m)
+    public Prim(EdgeList edges) {
+        numberOfVertexes = edges.getNumberOfVertexes();
+        int numberOfEdges = edges.getNumberOfEdges();
+        int[] source = edges.getSources();
+        int[] destination = edges.getDestinations();
+        int[] weight = edges.getWeights();
+
+        // Counts the entries of each vertex at offset[v + 1], so the prefix sum lines up
+        offset = new int[numberOfVertexes + 1];
+        for (int i = 0; i < numberOfEdges; i++) {
+            if (source[i] != destination[i]) {
+                offset[source[i] + 1]++;
+                offset[destination[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < numberOfVertexes; v++) {
+            offset[v + 1] += offset[v];
+        }
+
+        // Places both directions of every edge, each vertex's entries in input order
+        adjacency = new int[2 * offset[numberOfVertexes]];
+        int[] nextEntry = Arrays.copyOf(offset, numberOfVertexes);
+        for (int i = 0; i < numberOfEdges; i++) {
+            if (source[i] != destination[i]) {
+                int entry = 2 * nextEntry[source[i]]++;
+                adjacency[entry] = destination[i];
+                adjacency[entry + 1] = weight[i];
+                entry = 2 * nextEntry[destination[i]]++;
+                adjacency[entry] = source[i];
+                adjacency[entry + 1] = weight[i];
+            }
+        }
+
+        heap = new int[numberOfVertexes];
+        position = new int[numberOfVertexes];
+        key = new int[numberOfVertexes];
+    }
+
+
+    /**
+     * run Method
+     * Grows the minimum spanning tree of the component of vertex 0, and returns its weight.  It
+     * spans the graph only if spans() says so afterwards
+     * Completed in O(m log(n)) time
+     */
+    public long run() {
+        treeSize = 0;
+        decreaseCount = 0;
+        if (numberOfVertexes == 0) {
+            return 0;
+        }
+        Arrays.fill(position, NOT_REACHED);
+        heapSize = 0;
+
+        // Vertex 0 starts the tree, through an edge of weight 0
+        long treeWeight = 0;
+        key[0] = 0;
+        insert(0);
+        while (heapSize > 0) {
+            int vertex = removeMin();
+            treeWeight += key[vertex];
+            treeSize++;
+
+            // Offers each edge to a vertex outside the tree as that vertex's way in
+            for (int entry = 2 * offset[vertex]; entry < 2 * offset[vertex + 1]; entry += 2) {
+                int next = adjacency[entry];
+                int nextWeight = adjacency[entry + 1];
+                int nextPosition = position[next];
+                if (nextPosition == NOT_REACHED) {
+                    key[next] = nextWeight;
+                    insert(next);
+                }
+                else if (nextPosition != IN_TREE && nextWeight < key[next]) {
+                    key[next] = nextWeight;
+                    siftUp(nextPosition);
+                    decreaseCount++;
+                }
+            }
+        }
+        return treeWeight;
+    }
+
+    // Whether the last run's tree spans the graph, every vertex having joined it
+    public boolean spans() {
+        return numberOfVertexes > 0 && treeSize == numberOfVertexes;
+    }
+
+
+    // Getters for the fields
+    public long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+
+    // Helper Methods
+
+    // Adds a vertex to the bottom of the heap and moves it up to its place
+    private void insert(int vertex) {
+        heap[heapSize] = vertex;
+        position[vertex] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    // Removes the vertex with the lightest key from the heap and marks it as in the tree
+    private int removeMin() {
+        int top = heap[0];
+        position[top] = IN_TREE;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * siftUp Method
+     * Moves the vertex at index i up past every parent with a heavier key, keeping position[] in
+     * step.  The vertex is held aside and the parents moved down, so each level costs one write
+     * Completed in O(log(n)) time
+     */
+    private void siftUp(int i) {
+        int vertex = heap[i];
+        int vertexKey = key[vertex];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentVertex = heap[parent];
+            if (key[parentVertex] <= vertexKey) {
+                break;
+            }
+            heap[i] = parentVertex;
+            position[parentVertex] = i;
+            i = parent;
+        }
+        heap[i] = vertex;
+        position[vertex] = i;
+    }
+
+    /**
+     * siftDown Method
+     * Moves the vertex at index i down past every child with a lighter key, the lighter child
+     * first, keeping position[] in step
+     * Completed in O(log(n)) time
+     */
+    private void siftDown(int i) {
+        int vertex = heap[i];
+        int vertexKey = key[vertex];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            int childVertex = heap[child];
+            if (key[childVertex] >= vertexKey) {
+                break;
+            }
+            heap[i] = childVertex;
+            position[childVertex] = i;
+            i = child;
+        }
+        heap[i] = vertex;
+        position[vertex] = i;
+    }
+}
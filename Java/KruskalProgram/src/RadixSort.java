@@ -0,0 +1,255 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * RadixSort Class
+ *
+ * Sorts an EdgeList by weight in linear time, replacing the recursive merge sort over Edge
+ * objects.  The weights are integers, so instead of comparing them the sort distributes the edges
+ * by the digits of their weight, least significant digit first (LSD radix sort).  Each pass is a
+ * counting sort on one digit:
+ *      1) histogram: count how many edges have each digit value
+ *      2) prefix sum the counts into the first slot of each digit value
+ *      3) scatter: move every edge, in order, to the next free slot of its digit value
+ * Every pass is stable, so after the last (most significant) digit the edges are in order of the
+ * whole weight, edges of equal weight staying in input order.  A pass reads the three arrays front
+ * to back and writes into one sequential run per digit value, and moves the whole edge (weight,
+ * source and destination) rather than an index to it, so the Kruskal loop afterwards also reads
+ * the edges front to back.
+ *
+ * Weights are sorted relative to the smallest one, so the number of digits depends on the range of
+ * the weights, not their size.  A range below COUNTING_SORT_RANGE is done in a single counting
+ * pass with one bucket per weight.  A larger range is split into the fewest passes of at most
+ * RADIX_BITS bits, of equal width: weights 1 to 1,000,000 take two passes of 10 bits.  The buckets
+ * of one pass (a few thousand ints) stay in the L1 cache.
+ *
+ * Parallel Variant (see sort() with more than one thread):
+ *      The edges are cut into one chunk per thread.  Each thread counts the digits of its own chunk
+ *      into its own histogram, then the prefix sum runs over (digit value, chunk) in that order,
+ *      which hands each chunk its own range inside every bucket.  Each thread then scatters its
+ *      chunk into its ranges without touching any other thread's slots, and the result is exactly
+ *      the one the sequential sort gives.
+ * For complexity arguments, m = number of edges, k = number of passes, b = buckets per pass,
+ * t = threads.  A sort takes O(k (m + b t)) time, so O(m) for the weights of the README.
+ */
+public class RadixSort {
+    // Largest number of bits sorted in one pass, 2^11 buckets
+    public static final int RADIX_BITS = 11;
+
+    // Weight ranges smaller than this are sorted with a single counting pass
+    public static final int COUNTING_SORT_RANGE = 1 << 16;
+
+    // Edge lists shorter than this are sorted on one thread, whatever is asked for
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+
+    /**
+     * sort Method
+     * Sorts the edges by weight, stably, on the calling thread
+     * Completed in O(k (m + b)) time
+     */
+    public static void sort(EdgeList edges) {
+        sort(edges, 1);
+    }
+
+    /**
+     * sort Method
+     * Sorts the edges by weight, stably, with the histogram and scatter of every pass split over
+     * numberOfThreads threads
+     * Completed in O(k (m + b t)) time
+     */
+    public static void sort(EdgeList edges, int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Sorting needs at least 1 thread, was " + numberOfThreads);
+        }
+        int numberOfEdges = edges.getNumberOfEdges();
+        if (numberOfEdges < 2) {
+            return;
+        }
+        int[] weight = edges.getWeights();
+        int[] source = edges.getSources();
+        int[] destination = edges.getDestinations();
+
+        // Range of the weights.  Keys are taken as weight - minimum, read as unsigned ints, so
+        // any int weights fit
+        int minimum = weight[0];
+        int maximum = weight[0];
+        for (int w : weight) {
+            minimum = Math.min(minimum, w);
+            maximum = Math.max(maximum, w);
+        }
+        long range = (long) maximum - minimum;
+        if (range == 0) {
+            return;
+        }
+
+        // Number of passes and bits per pass
+        int passes;
+        int bitsPerPass;
+        if (range < COUNTING_SORT_RANGE) {
+            passes = 1;
+            bitsPerPass = 64 - Long.numberOfLeadingZeros(range);
+        }
+        else {
+            int bits = 64 - Long.numberOfLeadingZeros(range);
+            passes = (bits + RADIX_BITS - 1) / RADIX_BITS;
+            bitsPerPass = (bits + passes - 1) / passes;
+        }
+        int buckets = (passes == 1) ? (int) range + 1 : 1 << bitsPerPass;
+
+        int chunks = (numberOfEdges < PARALLEL_THRESHOLD) ? 1 : Math.min(numberOfThreads, numberOfEdges);
+        Sorter sorter = new Sorter(weight, source, destination, minimum, buckets, chunks);
+        ForkJoinPool threadPool = (chunks > 1) ? new ForkJoinPool(chunks) : null;
+        try {
+            for (int pass = 0; pass < passes; pass++) {
+                sorter.sortPass(pass * bitsPerPass, (1 << bitsPerPass) - 1, threadPool);
+            }
+        }
+        finally {
+            if (threadPool != null) {
+                threadPool.shutdown();
+            }
+        }
+
+        // After an odd number of passes the sorted edges are in the spare arrays
+        if (sorter.weight != weight) {
+            System.arraycopy(sorter.weight, 0, weight, 0, numberOfEdges);
+            System.arraycopy(sorter.source, 0, source, 0, numberOfEdges);
+            System.arraycopy(sorter.destination, 0, destination, 0, numberOfEdges);
+        }
+    }
+
+
+    // Additional Classes
+
+    /**
+     * Sorter Class
+     * The arrays of one sort: the edges, spare arrays of the same size to scatter into, and one
+     * histogram per chunk.  After each pass the two sets of arrays trade places.
+     * Fields:
+     *      weight, source, destination : the edges, in the order of the passes done so far
+     *      spareWeight, spareSource, spareDestination : where the next pass scatters to
+     *      minimum : smallest weight, subtracted from every weight to make the keys
+     *      chunkStart : first edge of each chunk, and the end of the last one
+     *      counts : histogram of each chunk, turned into its next free slot per bucket
+     */
+    private static class Sorter {
+        int[] weight;
+        int[] source;
+        int[] destination;
+        int[] spareWeight;
+        int[] spareSource;
+        int[] spareDestination;
+        final int minimum;
+        final int[] chunkStart;
+        final int[][] counts;
+
+        // Constructor for the arrays of one sort
+        Sorter(int[] edgeWeight, int[] edgeSource, int[] edgeDestination, int minimumWeight, int buckets, int chunks) {
+            weight = edgeWeight;
+            source = edgeSource;
+            destination = edgeDestination;
+            spareWeight = new int[weight.length];
+            spareSource = new int[weight.length];
+            spareDestination = new int[weight.length];
+            minimum = minimumWeight;
+            chunkStart = new int[chunks + 1];
+            for (int c = 0; c <= chunks; c++) {
+                chunkStart[c] = (int) ((long) weight.length * c / chunks);
+            }
+            counts = new int[chunks][buckets];
+        }
+
+        /**
+         * sortPass Method
+         * One stable counting pass on the digit (key >>> shift) & mask, with every chunk's
+         * histogram and scatter run on the pool (or on this thread if there is none)
+         */
+        void sortPass(final int shift, final int mask, ForkJoinPool threadPool) {
+            // Histogram of each chunk
+            runChunks(threadPool, new ChunkTask() {
+                void run(int chunk) {
+                    int[] count = counts[chunk];
+                    Arrays.fill(count, 0);
+                    for (int i = chunkStart[chunk]; i < chunkStart[chunk + 1]; i++) {
+                        count[((weight[i] - minimum) >>> shift) & mask]++;
+                    }
+                }
+            });
+
+            // Prefix sum over (bucket, chunk): each chunk's slots in a bucket follow those of the
+            // chunks before it, so the scatter keeps the input order within a bucket
+            int next = 0;
+            for (int bucket = 0; bucket < counts[0].length; bucket++) {
+                for (int[] count : counts) {
+                    int bucketSize = count[bucket];
+                    count[bucket] = next;
+                    next += bucketSize;
+                }
+            }
+
+            // Scatter of each chunk into its own slots
+            runChunks(threadPool, new ChunkTask() {
+                void run(int chunk) {
+                    int[] nextSlot = counts[chunk];
+                    for (int i = chunkStart[chunk]; i < chunkStart[chunk + 1]; i++) {
+                        int slot = nextSlot[((weight[i] - minimum) >>> shift) & mask]++;
+                        spareWeight[slot] = weight[i];
+                        spareSource[slot] = source[i];
+                        spareDestination[slot] = destination[i];
+                    }
+                }
+            });
+
+            // The sorted arrays become the current ones
+            int[] swap = weight;
+            weight = spareWeight;
+            spareWeight = swap;
+            swap = source;
+            source = spareSource;
+            spareSource = swap;
+            swap = destination;
+            destination = spareDestination;
+            spareDestination = swap;
+        }
+
+        // Runs the task for every chunk, one per thread of the pool, and waits for all of them
+        private void runChunks(ForkJoinPool threadPool, final ChunkTask task) {
+            if (threadPool == null) {
+                for (int chunk = 0; chunk < counts.length; chunk++) {
+                    task.run(chunk);
+                }
+                return;
+            }
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(counts.length);
+            for (int chunk = 0; chunk < counts.length; chunk++) {
+                final int chunkNumber = chunk;
+                tasks.add(new Callable<Void>() {
+                    public Void call() {
+                        task.run(chunkNumber);
+                        return null;
+                    }
+                });
+            }
+
+            // Waits for every chunk, passing on any failure
+            for (Future<Void> result : threadPool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while sorting edges", e);
+                }
+                catch (ExecutionException e) {
+                    throw new IllegalStateException("Sorting worker failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    // The work of one chunk in a pass
+    private abstract static class ChunkTask {
+        abstract void run(int chunk);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.*;
+
+/**
+ * UnionFind Class
+ *
+ * Disjoint sets over the vertex indexes 0 to n - 1 (vertex number - 1), kept in primitive arrays
+ * instead of one Node and one Component object per vertex.  Each set is a tree of parent links in
+ * parent[], and its root also holds the size of the set and the total weight of the edges joined
+ * into it, in size[] and weight[].  A Find follows parent links with no objects to load on the way.
+ *
+ * Union by size: the root of the smaller set is linked under the root of the larger one (the
+ * second set on ties), so a tree is never more than log(n) links deep.
+ * Path halving: while walking up, Find points every other vertex on the path at its grandparent.
+ * That flattens the path in the same single pass that walks it, instead of a second pass back down
+ * as in full path compression.  With both, any sequence of operations takes O(alpha(n)) amortized
+ * time per operation, alpha being the inverse Ackermann function, which is below 5 for any real
+ * input.
+ * For complexity arguments, n = number of vertexes.
+ *
+ * Fields:
+ *      parent : parent of each vertex in its set's tree, the vertex itself for a root
+ *      size : number of vertexes in the set, only valid at a root
+ *      weight : total weight of the edges joined into the set, only valid at a root
+ *               NOTE: weight is long to avoid overflow issues
+ *      numberOfSets : number of disjoint sets left
+ */
+public class UnionFind {
+    // Fields
+    private final int[] parent;
+    private final int[] size;
+    private final long[] weight;
+    private int numberOfSets;
+
+
+    // Constructor Method
+    // Every vertex starts in a set of its own, with no edges
+    // Efficiency of O(n)
+    public UnionFind(int numberOfVertexes) {
+        parent = new int[numberOfVertexes];
+        size = new int[numberOfVertexes];
+        weight = new long[numberOfVertexes];
+        for (int v = 0; v < numberOfVertexes; v++) {
+            parent[v] = v;
+        }
+        Arrays.fill(size, 1);
+        numberOfSets = numberOfVertexes;
+    }
+
+
+    /**
+     * find Method
+     * Returns the root of the set holding vertex, halving the path to it on the way
+     * Completed in O(alpha(n)) amortized time
+     */
+    public int find(int vertex) {
+        while (parent[vertex] != vertex) {
+            parent[vertex] = parent[parent[vertex]];
+            vertex = parent[vertex];
+        }
+        return vertex;
+    }
+
+    /**
+     * union Method
+     * Joins the sets holding a and b with an edge of the given weight, and returns the root of
+     * the joined set, or -1 (joining nothing) if a and b are already in the same set
+     * Completed in O(alpha(n)) amortized time
+     */
+    public int union(int a, int b, long edgeWeight) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return -1;
+        }
+        if (size[rootA] > size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+
+        // Links the smaller root under the larger, which takes over its size and weight
+        parent[rootA] = rootB;
+        size[rootB] += size[rootA];
+        weight[rootB] += weight[rootA] + edgeWeight;
+        numberOfSets--;
+        return rootB;
+    }
+
+    // Whether a and b are in the same set
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+
+    // Getters for the fields, of the set whose root is given
+    public int getSize(int root) {
+        return size[root];
+    }
+    public long getWeight(int root) {
+        return weight[root];
+    }
+    public int getNumberOfSets() {
+        return numberOfSets;
+    }
+}